@@ -0,0 +1,38 @@
+package com.analyseloto.loto.bench;
+
+import com.analyseloto.loto.service.CoveringDesignService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction gloutonne d'un système réducteur C(v, 5, t, m) (budget de recuit nul, sans cache)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoveringDesignBenchmark {
+
+    @Param({"10", "15", "20"})
+    private int v;
+
+    @Param({"2", "3"})
+    private int garantie;
+
+    private CoveringDesignService coveringDesignService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        coveringDesignService = new CoveringDesignService(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public int[][] glouton() {
+        return coveringDesignService.calculer(v, CoveringDesignService.K, garantie, garantie, Duration.ZERO);
+    }
+}
@@ -0,0 +1,72 @@
+package com.analyseloto.loto.bench;
+
+import com.analyseloto.loto.entity.LotoTirage;
+import com.analyseloto.loto.entity.LotoTirageRank;
+import com.analyseloto.loto.entity.UserBet;
+import com.analyseloto.loto.service.LotoService;
+import com.analyseloto.loto.util.PrizeTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul du gain d'un lot de grilles joueur face à un tirage officiel (grille par grille, puis via la table de gains)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GainBenchmark {
+
+    @Param({"2500", "10000", "100000"})
+    private int grilles;
+
+    private LotoService lotoService;
+    private LotoTirage tirage;
+    private UserBet[] bets;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        lotoService = new LotoService(null, null, null, null, null, null, null, null, null, null);
+        SplittableRandom rnd = new SplittableRandom(42L);
+
+        tirage = new LotoTirage();
+        int[] t = HistoriqueSynthetique.grille(rnd);
+        tirage.setBoule1(t[0]); tirage.setBoule2(t[1]); tirage.setBoule3(t[2]); tirage.setBoule4(t[3]); tirage.setBoule5(t[4]);
+        tirage.setNumeroChance(1 + rnd.nextInt(10));
+        double[] gains = {2_000_000, 100_000, 1_000, 500, 50, 20, 10, 5, 2.2};
+        for (int rang = 1; rang <= gains.length; rang++) {
+            LotoTirageRank r = new LotoTirageRank();
+            r.setRankNumber(rang);
+            r.setPrize(gains[rang - 1]);
+            tirage.addRank(r);
+        }
+
+        bets = new UserBet[grilles];
+        for (int i = 0; i < grilles; i++) {
+            int[] g = HistoriqueSynthetique.grille(rnd);
+            UserBet b = new UserBet();
+            b.setB1(g[0]); b.setB2(g[1]); b.setB3(g[2]); b.setB4(g[3]); b.setB5(g[4]);
+            b.setChance(1 + rnd.nextInt(10));
+            bets[i] = b;
+        }
+    }
+
+    @Benchmark
+    public void calculerGainSimule(Blackhole bh) {
+        for (UserBet b : bets) bh.consume(lotoService.calculerGainSimule(b, tirage));
+    }
+
+    @Benchmark
+    public double classementTableDeGains() {
+        // Chemin du règlement : table construite une fois, puis un popcount par grille
+        PrizeTable table = PrizeTable.of(tirage);
+        double total = 0.0;
+        for (UserBet b : bets) total += table.gain(b.getMasque(), b.getChance());
+        return total;
+    }
+}
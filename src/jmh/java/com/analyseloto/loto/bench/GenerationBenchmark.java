@@ -0,0 +1,67 @@
+package com.analyseloto.loto.bench;
+
+import com.analyseloto.loto.dto.PronosticResultDto;
+import com.analyseloto.loto.service.CoveringDesignService;
+import com.analyseloto.loto.service.EmailService;
+import com.analyseloto.loto.service.WheelCatalogService;
+import com.analyseloto.loto.service.WheelVerifierService;
+import com.analyseloto.loto.service.WheelingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Génération des grilles (système réducteur) et rendu de l'email de pronostics
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Param({"10", "12"})
+    private int pool;
+
+    private WheelingService wheelingService;
+    private EmailService emailService;
+    private List<Integer> numeros;
+    private List<PronosticResultDto> pronos;
+    private LocalDate date;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CoveringDesignService coveringDesignService = new CoveringDesignService(ForkJoinPool.commonPool());
+        WheelVerifierService wheelVerifierService = new WheelVerifierService(ForkJoinPool.commonPool());
+        WheelCatalogService wheelCatalogService = new WheelCatalogService(coveringDesignService, wheelVerifierService);
+        wheelCatalogService.charger();
+        wheelingService = new WheelingService(wheelCatalogService, coveringDesignService, wheelVerifierService);
+        emailService = new EmailService(null);
+        numeros = IntStream.rangeClosed(1, pool).map(i -> i * 4).boxed().toList();
+        date = LocalDate.of(2026, 10, 19);
+
+        SplittableRandom rnd = new SplittableRandom(42L);
+        pronos = new ArrayList<>();
+        for (int[] g : wheelingService.genererSystemeReducteur(numeros, 3)) {
+            pronos.add(new PronosticResultDto(IntStream.of(g).sorted().boxed().toList(), 1 + rnd.nextInt(10),
+                    rnd.nextDouble(20), rnd.nextDouble(3), 0.0, false, "MATRICE"));
+        }
+    }
+
+    @Benchmark
+    public List<int[]> genererSystemeReducteur() {
+        return wheelingService.genererSystemeReducteur(numeros, 3);
+    }
+
+    @Benchmark
+    public String buildPersonalizedHtmlBody() {
+        return emailService.buildPersonalizedHtmlBody(pronos, date, "Camille");
+    }
+}
@@ -0,0 +1,49 @@
+package com.analyseloto.loto.bench;
+
+import com.analyseloto.loto.service.DrawHistoryStore;
+
+import java.util.SplittableRandom;
+
+/**
+ * Historiques de tirages aléatoires (graine fixe) pour les benchmarks
+ */
+final class HistoriqueSynthetique {
+    // Lundi / Mercredi / Samedi : écarts de 2, 3 puis 2 jours
+    private static final int[] ECARTS = {2, 3, 2};
+    private static final int PREMIER_JOUR = (int) java.time.LocalDate.of(1976, 5, 19).toEpochDay();
+
+    private HistoriqueSynthetique() {
+    }
+
+    static DrawHistoryStore.Snapshot generer(int taille, long graine) {
+        SplittableRandom rnd = new SplittableRandom(graine);
+        int[] jours = new int[taille];
+        byte[][] boules = new byte[5][taille];
+        byte[] chances = new byte[taille];
+
+        int jour = PREMIER_JOUR;
+        for (int i = 0; i < taille; i++) {
+            jours[i] = jour;
+            jour += ECARTS[i % ECARTS.length];
+            int[] tirage = grille(rnd);
+            for (int r = 0; r < 5; r++) boules[r][i] = (byte) tirage[r];
+            chances[i] = (byte) (1 + rnd.nextInt(10));
+        }
+        return new DrawHistoryStore.Snapshot(jours, boules, chances);
+    }
+
+    /**
+     * 5 numéros distincts entre 1 et 49
+     */
+    static int[] grille(SplittableRandom rnd) {
+        int[] g = new int[5];
+        long pris = 0L;
+        for (int i = 0; i < 5; ) {
+            int b = 1 + rnd.nextInt(49);
+            if ((pris & (1L << b)) != 0) continue;
+            pris |= 1L << b;
+            g[i++] = b;
+        }
+        return g;
+    }
+}
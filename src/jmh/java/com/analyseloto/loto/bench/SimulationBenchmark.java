@@ -0,0 +1,78 @@
+package com.analyseloto.loto.bench;
+
+import com.analyseloto.loto.dto.SimuBatchResultDto;
+import com.analyseloto.loto.dto.SimulationResultDto;
+import com.analyseloto.loto.service.DrawHistoryStore;
+import com.analyseloto.loto.service.DrawSubsetIndex;
+import com.analyseloto.loto.service.LotoService;
+import com.analyseloto.loto.service.SimulationBatchService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulation d'une grille sur l'historique (page /simuler, générateur, simulation par lot)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+    private static final int NB_GRILLES = 1024;
+
+    @Param({"2500", "10000", "100000"})
+    private int tirages;
+
+    private DrawHistoryStore.Snapshot historique;
+    private DrawSubsetIndex.Index index;
+    private LotoService lotoService;
+    private List<List<Integer>> grilles;
+    private LocalDate date;
+    private int curseur;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        historique = HistoriqueSynthetique.generer(tirages, 42L);
+        index = DrawSubsetIndex.Index.construire(historique);
+        // Seul l'index passé en paramètre est utilisé par la simulation
+        lotoService = new LotoService(null, null, null, null, null, null, null, null, null, null);
+        date = historique.date(historique.taille() - 1).plusDays(2);
+
+        SplittableRandom rnd = new SplittableRandom(7L);
+        grilles = new ArrayList<>(NB_GRILLES);
+        for (int i = 0; i < NB_GRILLES; i++) {
+            grilles.add(Arrays.stream(HistoriqueSynthetique.grille(rnd)).boxed().toList());
+        }
+    }
+
+    private List<Integer> grilleSuivante() {
+        curseur = (curseur + 1) & (NB_GRILLES - 1);
+        return grilles.get(curseur);
+    }
+
+    @Benchmark
+    public SimulationResultDto simulerGrilleDetaillee() {
+        return lotoService.simulerGrilleDetaillee(grilleSuivante(), date, index);
+    }
+
+    @Benchmark
+    public SimuBatchResultDto.GrilleResume resumerGrille() {
+        return SimulationBatchService.resumer(grilleSuivante(), index);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public DrawSubsetIndex.Index construireIndex() {
+        return DrawSubsetIndex.Index.construire(historique);
+    }
+}
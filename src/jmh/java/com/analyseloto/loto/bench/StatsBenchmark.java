@@ -0,0 +1,69 @@
+package com.analyseloto.loto.bench;
+
+import com.analyseloto.loto.dto.StatsReponse;
+import com.analyseloto.loto.service.DrawAffinityService;
+import com.analyseloto.loto.service.DrawHistoryStore;
+import com.analyseloto.loto.service.DrawStatsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistiques de fréquence / écart et matrices d'affinité : reconstruction complète,
+ * mise à jour incrémentale à l'arrivée d'un tirage et lecture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsBenchmark {
+
+    @Param({"2500", "10000", "100000"})
+    private int tirages;
+
+    private DrawHistoryStore.Snapshot historique;
+    private DrawStatsService statsService;
+    private DrawAffinityService affinityService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        historique = HistoriqueSynthetique.generer(tirages, 42L);
+        statsService = new DrawStatsService(null);
+        statsService.onHistoriqueRecharge(historique);
+        affinityService = new DrawAffinityService(null);
+        affinityService.onHistoriqueRecharge(historique);
+    }
+
+    @Benchmark
+    public StatsReponse getStatsFiltreJour() {
+        return statsService.stats(DayOfWeek.MONDAY);
+    }
+
+    @Benchmark
+    public StatsReponse statsTirageAjoute() {
+        // Ré-applique le dernier tirage : même coût qu'un nouveau tirage
+        statsService.onTirageAjoute(historique, historique.taille() - 1);
+        return statsService.stats(null);
+    }
+
+    @Benchmark
+    public DrawStatsService statsReconstruction() {
+        statsService.onHistoriqueRecharge(historique);
+        return statsService;
+    }
+
+    @Benchmark
+    public DrawAffinityService.AffinityMatrix affiniteTirageAjoute() {
+        affinityService.onTirageAjoute(historique, historique.taille() - 1);
+        return affinityService.matrice(DayOfWeek.SATURDAY);
+    }
+
+    @Benchmark
+    public DrawAffinityService.AffinityMatrix affiniteReconstruction() {
+        affinityService.onHistoriqueRecharge(historique);
+        return affinityService.matrice(DayOfWeek.SATURDAY);
+    }
+}
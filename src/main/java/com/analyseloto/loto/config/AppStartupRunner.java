@@ -1,30 +1,54 @@
 package com.analyseloto.loto.config;
 
+import com.analyseloto.loto.dto.WheelVerificationDto;
+import com.analyseloto.loto.service.DrawHistoryStore;
 import com.analyseloto.loto.service.LotoService;
+import com.analyseloto.loto.service.WheelCatalogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.CompletableFuture;
-
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class AppStartupRunner {
     private final LotoService lotoService;
+    private final DrawHistoryStore drawHistoryStore;
+    private final WheelCatalogService wheelCatalogService;
+    private final ThreadPoolTaskExecutor adminExecutor;
 
     @EventListener(ApplicationReadyEvent.class)
     public void onApplicationReady() {
         // 1. D'abord on charge ce qu'on a en BDD (Synchrone et Prioritaire)
         lotoService.initConfigFromDb();
+        drawHistoryStore.recharger();
 
-        // 2. Ensuite, on lance le calcul lourd si nécessaire (Délégué à un thread séparé)
-        CompletableFuture.runAsync(() -> {
+        // 2. Ensuite, on lance le calcul lourd si nécessaire (Délégué au pool des tâches d'administration)
+        adminExecutor.execute(() -> {
             log.info("🔥 [WARMUP] Vérification de la fraîcheur des données...");
             lotoService.verificationAuDemarrage();
+            verifierSystemesUtilises();
         });
     }
+
+    /**
+     * Vérification exhaustive des systèmes réducteurs servis par le générateur
+     */
+    private void verifierSystemesUtilises() {
+        int g = LotoService.GARANTIE_WHEELING;
+        for (int v : new int[]{LotoService.POOL_STANDARD, LotoService.POOL_ETENDUE}) {
+            WheelVerificationDto verification = wheelCatalogService.verification(v, g, g);
+            if (verification == null) {
+                log.warn("⚠️ [WHEELING] Aucun système {}/{} au catalogue pour une piscine de {}.", g, g, v);
+            } else if (verification.garantit(g, g)) {
+                log.info("✅ [WHEELING] Piscine de {} : {} grilles, garantie {}/{} vérifiée.", v, verification.getNombreGrilles(), g, g);
+            } else {
+                log.error("❌ [WHEELING] Piscine de {} : garantie {}/{} NON tenue ({}% des cas couverts).",
+                        v, g, g, verification.getCouverture()[g][g]);
+            }
+        }
+    }
 }
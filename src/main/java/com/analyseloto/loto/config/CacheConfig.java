@@ -7,37 +7,25 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import com.analyseloto.loto.service.CacheInvalidationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer; // Notez le "2"
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
 
+@Slf4j
 @Configuration
-@EnableCaching
 public class CacheConfig {
 
-    @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-
-        cacheManager.registerCustomCache("pronosticsIA",
-                Caffeine.newBuilder().maximumSize(500).expireAfterWrite(24, TimeUnit.HOURS).build());
-        cacheManager.registerCustomCache("statsGlobales",
-                Caffeine.newBuilder().maximumSize(10).expireAfterWrite(24, TimeUnit.HOURS).build());
-        cacheManager.registerCustomCache("algoConfig",
-                Caffeine.newBuilder().maximumSize(1).expireAfterWrite(1, TimeUnit.HOURS).build());
-
-        return cacheManager;
-    }
-
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -68,4 +56,29 @@ public class CacheConfig {
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Abonnement au canal d'invalidation des caches (plusieurs instances derrière Redis).
+     * Redis indisponible au démarrage ne bloque pas l'application : le conteneur retente l'abonnement en arrière-plan.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "loto.cache.l2", havingValue = "redis")
+    public RedisMessageListenerContainer invalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       CacheInvalidationService cacheInvalidationService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public void start() {
+                try {
+                    super.start();
+                } catch (DataAccessException e) {
+                    log.error("❌ [CACHE L2] Abonnement au canal {} impossible pour l'instant : {}", CacheInvalidationService.CANAL, e.getMessage());
+                }
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheInvalidationService.onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CacheInvalidationService.CANAL));
+        return container;
+    }
 }
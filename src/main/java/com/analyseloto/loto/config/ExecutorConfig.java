@@ -0,0 +1,122 @@
+package com.analyseloto.loto.config;
+
+import com.analyseloto.loto.util.LotoMetrics;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ForkJoinPoolFactoryBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pools de threads par type de charge : bornés, nommés, instrumentés (loto.executor.file, loto.executor.rejets)
+ * et vidés proprement à l'arrêt. Un afflux de travail un soir de tirage sature au pire son propre pool, jamais les threads HTTP.
+ */
+@Configuration
+public class ExecutorConfig {
+    public static final String REGLEMENT = "reglementExecutor";
+    public static final String ADMIN = "adminExecutor";
+    public static final String MAINTENANCE = "maintenanceScheduler";
+
+    /**
+     * Pool par défaut de Spring (amorçage JPA en arrière-plan, @Async sans nom de pool) :
+     * Spring Boot ne le crée plus dès qu'un autre pool est déclaré
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Planificateur des crons (@Scheduled) : Spring Boot ne le crée plus dès qu'un autre planificateur est déclaré
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Tâches de fond périodiques (battement des baux, rafraîchissement des scores IA, vidage de la file d'envoi),
+     * un thread chacune et séparées des crons : le battement n'attend jamais la fin d'un job.
+     * Arrêt : plus de nouveau passage, celui en cours se termine (un lot SMTP n'est pas interrompu puis renvoyé)
+     */
+    @Bean(MAINTENANCE)
+    public ThreadPoolTaskScheduler maintenanceScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("maintenance-");
+        scheduler.setPoolSize(3);
+        scheduler.setDaemon(true);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(60);
+        LotoMetrics.fileAttente("maintenance", scheduler, t -> t.getScheduledThreadPoolExecutor().getQueue().size());
+        return scheduler;
+    }
+
+    /**
+     * Règlement des grilles à l'arrivée d'un tirage.
+     * File pleine : le thread qui publie le tirage règle lui-même, un règlement n'est jamais perdu
+     */
+    @Bean(REGLEMENT)
+    public ThreadPoolTaskExecutor reglementExecutor() {
+        return pool("reglement", 1, 2, 10, new ThreadPoolExecutor.CallerRunsPolicy(), 120);
+    }
+
+    /**
+     * Déclenchements manuels de l'admin et préchauffage au démarrage : une tâche à la fois, file courte, refus au-delà
+     */
+    @Bean(ADMIN)
+    public ThreadPoolTaskExecutor adminExecutor() {
+        return pool("admin-task", 1, 1, 4, new ThreadPoolExecutor.AbortPolicy(), 30);
+    }
+
+    /**
+     * Calcul parallèle (simulations par lots, vérification et recherche de systèmes réducteurs) à la place du pool commun.
+     * Un cœur reste libre pour les requêtes web. Pas de file bornée en fork-join : chaque appelant attend son résultat,
+     * le nombre de soumissions est donc borné par le nombre de threads appelants
+     */
+    @Bean
+    public ForkJoinPoolFactoryBean calculPool() {
+        ForkJoinPoolFactoryBean factory = new ForkJoinPoolFactoryBean();
+        factory.setParallelism(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        factory.setThreadFactory(pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("calcul-" + t.getPoolIndex());
+            return t;
+        });
+        factory.setAwaitTerminationSeconds(30);
+        LotoMetrics.fileAttente("calcul", factory, f -> {
+            ForkJoinPool p = f.getObject();
+            return (p == null) ? 0 : p.getQueuedSubmissionCount() + p.getQueuedTaskCount();
+        });
+        return factory;
+    }
+
+    private static ThreadPoolTaskExecutor pool(String nom, int min, int max, int file, RejectedExecutionHandler politique, int drainSecondes) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(nom + "-");
+        executor.setCorePoolSize(min);
+        executor.setMaxPoolSize(max);
+        executor.setQueueCapacity(file);
+        executor.setRejectedExecutionHandler(compterRejets(nom, politique));
+        // Arrêt : plus de nouvelles tâches, celles en cours et en file se terminent (dans la limite du délai)
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(drainSecondes);
+        LotoMetrics.fileAttente(nom, executor, ThreadPoolTaskExecutor::getQueueSize);
+        return executor;
+    }
+
+    private static RejectedExecutionHandler compterRejets(String nom, RejectedExecutionHandler politique) {
+        Counter rejets = LotoMetrics.compteur("loto.executor.rejets", "Tâches refusées ou exécutées par l'appelant (file pleine)", "pool", nom);
+        return (tache, executor) -> {
+            rejets.increment();
+            politique.rejectedExecution(tache, executor);
+        };
+    }
+}
@@ -5,6 +5,7 @@ import com.analyseloto.loto.repository.UserRepository;
 import com.analyseloto.loto.security.CustomLoginFailureHandler;
 import com.analyseloto.loto.security.CustomLoginSuccessHandler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,6 +17,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -26,13 +28,21 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
-            @Value("${loto.security.remember-key}") String rememberKey) throws Exception {
+            @Value("${loto.security.remember-key}") String rememberKey,
+            @Value("${management.server.port:-1}") int portManagement) throws Exception {
+        // Scraping Prometheus libre seulement sur le port de management interne (non publié), ADMIN ailleurs
+        RequestMatcher prometheusInterne = request -> portManagement > 0 && request.getLocalPort() == portManagement
+                && EndpointRequest.to("prometheus").matches(request);
         http
                 .csrf(AbstractHttpConfigurer::disable) // Désactivé pour simplifier les appels API
                 .authorizeHttpRequests(auth -> auth
                         // Pages publiques
                         .requestMatchers("/login", "/register", "/confirm", "/forgot-password", "/reset-password", "/css/**", "/js/**", "/images/**").permitAll()
                         .requestMatchers("/api/validation/**").permitAll()
+                        // Sonde de vie
+                        .requestMatchers(EndpointRequest.to("health")).permitAll()
+                        .requestMatchers(prometheusInterne).permitAll()
+                        .requestMatchers(EndpointRequest.to("prometheus")).hasRole(RoleUser.ADMIN.name())
                         // Pages admin
                         .requestMatchers("/admin/**", "/api/loto/import", "/api/loto/add-result").hasRole(RoleUser.ADMIN.name())
                         .anyRequest().authenticated()
@@ -1,32 +1,96 @@
 package com.analyseloto.loto.controller;
 
+import com.analyseloto.loto.dto.WheelVerificationDto;
+import com.analyseloto.loto.dto.WheelVerificationRequest;
 import com.analyseloto.loto.job.LotoJob;
+import com.analyseloto.loto.service.WheelCatalogService;
+import com.analyseloto.loto.service.WheelVerifierService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.function.BooleanSupplier;
+
 @RestController
 @RequestMapping("/api/admin")
 @RequiredArgsConstructor
 public class AdminApiController {
     private final LotoJob lotoJob;
+    private final WheelCatalogService wheelCatalogService;
+    private final WheelVerifierService wheelVerifierService;
 
     @PostMapping("/trigger-fdj")
     public ResponseEntity<String> triggerFdjSync() {
         // On appelle manuellement le job de récupération FDJ
-        lotoJob.triggerRecupererResultatsFdj();
-
-        return ResponseEntity.ok("Le job de récupération FDJ a été exécuté.");
+        return lancer(lotoJob::triggerRecupererResultatsFdj,
+                "Le job de récupération FDJ a été exécuté.", "Une récupération FDJ est déjà en cours.");
     }
 
     @PostMapping("/trigger-prono")
     public ResponseEntity<String> triggerPronoGen(@RequestParam(defaultValue = "false") boolean force) {
-        // On lance le traitement dans un thread séparé pour ne pas bloquer l'IHM
-        new Thread(() -> lotoJob.executerGenerationPronostics(force)).start();
+        // On lance le traitement en arrière-plan pour ne pas bloquer l'IHM
+        return lancer(() -> lotoJob.executerGenerationPronostics(force),
+                "Génération des pronostics lancée (Force=" + force + ").", "Une génération des pronostics est déjà en cours.");
+    }
+
+    @PostMapping("/trigger-wheels")
+    public ResponseEntity<String> triggerWheelCatalog() {
+        // Plusieurs minutes de calcul : arrière-plan, le catalogue actuel reste servi jusqu'à la substitution
+        return lancer(lotoJob::regenererCatalogueSystemes,
+                "Régénération du catalogue des systèmes réducteurs lancée.", "Une régénération du catalogue est déjà en cours.");
+    }
+
+    @PostMapping("/trigger-stats")
+    public ResponseEntity<String> triggerStatsJoueurs() {
+        // Relecture de toutes les grilles, par lots de joueurs : arrière-plan
+        return lancer(lotoJob::reconstruireStatistiquesJoueurs,
+                "Reconstruction des statistiques de jeu lancée.", "Une reconstruction des statistiques est déjà en cours.");
+    }
+
+    /**
+     * Lancement manuel d'un job : 409 si le job tourne déjà, 429 si le pool d'administration est saturé
+     * @param lancement false si le job est refusé car déjà en cours
+     */
+    private ResponseEntity<String> lancer(BooleanSupplier lancement, String message, String dejaEnCours) {
+        try {
+            if (!lancement.getAsBoolean()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(dejaEnCours);
+            }
+            return ResponseEntity.ok(message);
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body("Trop de tâches d'administration en attente, réessayez plus tard.");
+        }
+    }
+
+    /**
+     * Vérification d'un système du catalogue
+     */
+    @GetMapping("/wheels/verify")
+    public ResponseEntity<WheelVerificationDto> verifierSysteme(@RequestParam int v, @RequestParam int t, @RequestParam int m) {
+        WheelVerificationDto verification = wheelCatalogService.verification(v, t, m);
+        return (verification == null) ? ResponseEntity.notFound().build() : ResponseEntity.ok(verification);
+    }
 
-        return ResponseEntity.ok("Génération des pronostics lancée (Force=" + force + ").");
+    /**
+     * Vérification d'un système candidat (grilles de 5 numéros, piscine = union des numéros)
+     */
+    @PostMapping("/wheels/verify")
+    public ResponseEntity<WheelVerificationDto> verifierCandidat(@RequestBody WheelVerificationRequest req) {
+        if (req.getGrilles() == null || req.getGrilles().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(wheelVerifierService.verifierGrilles(req.getGrilles()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
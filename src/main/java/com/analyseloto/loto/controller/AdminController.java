@@ -3,6 +3,7 @@ package com.analyseloto.loto.controller;
 import com.analyseloto.loto.entity.JobLog;
 import com.analyseloto.loto.entity.LotoTirage;
 import com.analyseloto.loto.repository.LotoTirageRepository;
+import com.analyseloto.loto.service.EmailOutboxService;
 import com.analyseloto.loto.service.JobMonitorService;
 import com.analyseloto.loto.service.LotoService;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,7 @@ public class AdminController {
     private final LotoTirageRepository lotoTirageRepository;
     // Services
     private final JobMonitorService jobMonitorService;
+    private final EmailOutboxService emailOutboxService;
 
     /**
      * Affichage de la page admin
@@ -45,6 +47,9 @@ public class AdminController {
         // On récupère les futurs jobs planifiés
         model.addAttribute("upcomingJobs", jobMonitorService.getUpcomingJobs());
 
+        // État de la file d'envoi des mails (en attente de remise SMTP, abandonnés)
+        model.addAttribute("fileEnvoi", emailOutboxService.etatFile());
+
         return "admin";
     }
 
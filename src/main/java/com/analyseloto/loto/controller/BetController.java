@@ -6,6 +6,8 @@ import com.analyseloto.loto.enums.BetType;
 import com.analyseloto.loto.repository.UserBetRepository;
 import com.analyseloto.loto.repository.UserRepository;
 import com.analyseloto.loto.service.PdfService;
+import com.analyseloto.loto.service.UserBetService;
+import com.analyseloto.loto.service.UserPlayStatsService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,11 +16,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.security.Principal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -31,6 +35,8 @@ public class BetController {
     private final UserRepository userRepository;
     // Services
     private final PdfService pdfService;
+    private final UserBetService userBetService;
+    private final UserPlayStatsService userPlayStatsService;
 
     /**
      * Action d'ajout d'une nouvelle grille de jeu
@@ -70,6 +76,7 @@ public class BetController {
 
             // Enregistrement de la grille
             betRepository.save(bet);
+            userPlayStatsService.ajouter(user, List.of(bet));
 
             log.info("Grille sauvegardée avec succès ID={}", bet.getId());
 
@@ -98,7 +105,7 @@ public class BetController {
 
             // 2. Découpage du texte : on sépare à chaque retour à la ligne (\n ou \r\n)
             String[] lines = rawCodes.split("\\r?\\n");
-            int count = 0;
+            List<UserBet> ajoutes = new ArrayList<>();
 
             for (String line : lines) {
                 // Nettoyage : Majuscules et suppression espaces autour
@@ -113,10 +120,11 @@ public class BetController {
                     bet.setCodeLoto(cleanCode);
                     bet.setType(BetType.CODE_LOTO); // Si tu as un Enum pour le type
 
-                    betRepository.save(bet);
-                    count++;
+                    ajoutes.add(betRepository.save(bet));
                 }
             }
+            userPlayStatsService.ajouter(user, ajoutes);
+            int count = ajoutes.size();
 
             log.info("Ajout de {} Codes Loto pour {} à la date du {}", count, principal.getName(), dateJeu);
 
@@ -146,8 +154,10 @@ public class BetController {
             }
 
             // Enregistrement du nouveau gain
+            Double ancienGain = bet.getGain();
             bet.setGain(gain);
             betRepository.save(bet);
+            userPlayStatsService.modifierGain(bet, ancienGain);
         } catch (Exception e) {
             log.error("Erreur update gain", e);
             return "redirect:/?error=updateFailed";
@@ -171,6 +181,7 @@ public class BetController {
             // Contrôle possession de la grille de l'utilisateur
             if (bet.getUser().getEmail().equals(principal.getName())) {
                 betRepository.delete(bet);
+                userPlayStatsService.retirer(bet.getUser(), List.of(bet));
             }
         } catch (Exception e) {
             log.error("Erreur delete", e);
@@ -194,7 +205,7 @@ public class BetController {
         try {
             User user = userRepository.findByEmail(principal.getName()).orElseThrow();
 
-            int count = 0;
+            List<UserBet> ajoutes = new ArrayList<>();
             for (List<Integer> numbers : request.getGrilles()) {
                 if (numbers.size() == 6) { // 5 boules + 1 chance
                     UserBet bet = new UserBet();
@@ -210,11 +221,11 @@ public class BetController {
                     bet.setB5(numbers.get(4));
                     bet.setChance(numbers.get(5));
 
-                    betRepository.save(bet);
-                    count++;
+                    ajoutes.add(betRepository.save(bet));
                 }
             }
-            return ResponseEntity.ok("Succès : " + count + " grilles enregistrées !");
+            userPlayStatsService.ajouter(user, ajoutes);
+            return ResponseEntity.ok("Succès : " + ajoutes.size() + " grilles enregistrées !");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erreur : " + e.getMessage());
         }
@@ -230,7 +241,7 @@ public class BetController {
             User user = userRepository.findByEmail(principal.getName())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            int count = 0;
+            List<UserBet> ajoutes = new ArrayList<>();
             for (List<Integer> numbers : request.getGrilles()) {
                 // Validation basique (5 boules + 1 chance)
                 if (numbers.size() != 6) continue;
@@ -248,9 +259,10 @@ public class BetController {
                 bet.setB5(numbers.get(4));
                 bet.setChance(numbers.get(5));
 
-                betRepository.save(bet);
-                count++;
+                ajoutes.add(betRepository.save(bet));
             }
+            userPlayStatsService.ajouter(user, ajoutes);
+            int count = ajoutes.size();
 
             log.info("Saisie MANUELLE multiple : {} grilles ajoutées pour {}", count, principal.getName());
 
@@ -262,6 +274,21 @@ public class BetController {
         }
     }
 
+    /**
+     * Page suivante de l'historique des grilles (défilement infini du tableau de bord)
+     * @param principal utilisateur
+     * @param apresDate date de jeu de la dernière grille affichée
+     * @param apresId id de la dernière grille affichée
+     * @param model model
+     * @return lignes du tableau des grilles
+     */
+    @GetMapping("/history")
+    public String history(Principal principal, @RequestParam LocalDate apresDate, @RequestParam Long apresId, Model model) {
+        User user = userRepository.findByEmail(principal.getName()).orElseThrow();
+        model.addAttribute("historique", userBetService.recupererPageHistorique(user, apresDate, apresId));
+        return "fragments/bets :: lignes";
+    }
+
     /**
      * Action d'export des grilles en PDF
      * @param principal
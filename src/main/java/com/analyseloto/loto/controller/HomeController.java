@@ -2,10 +2,7 @@ package com.analyseloto.loto.controller;
 
 import com.analyseloto.loto.dto.PronosticResultDto;
 import com.analyseloto.loto.dto.StatsReponse;
-import com.analyseloto.loto.entity.LotoTirage;
 import com.analyseloto.loto.entity.User;
-import com.analyseloto.loto.entity.UserBet;
-import com.analyseloto.loto.repository.LotoTirageRepository;
 import com.analyseloto.loto.repository.UserRepository;
 import com.analyseloto.loto.service.LotoService;
 import com.analyseloto.loto.service.UserBetService;
@@ -17,15 +14,12 @@ import org.springframework.web.bind.annotation.GetMapping;
 import java.security.Principal;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
 public class HomeController {
     // Repositories
     private final UserRepository userRepository;
-    private final LotoTirageRepository lotoTirageRepository;
     // Services
     private final LotoService lotoService;
     private final UserBetService userBetService;
@@ -68,22 +62,10 @@ public class HomeController {
             model.addAttribute("aiBets", new ArrayList<>());
         }
 
-        // Récupération des grilles du joueur
-        List<UserBet> userBets = userBetService.recupererGrillesUtilisateurTriees(user);
-        model.addAttribute("bets", userBets);
-
-        // On récupère toutes les dates uniques jouées par l'utilisateur
-        Set<LocalDate> datesJouees = userBets.stream()
-                .map(UserBet::getDateJeu)
-                .collect(Collectors.toSet());
-
-        // On recherche les résultats officiels pour ces dates
-        List<LotoTirage> tiragesOfficiels = lotoTirageRepository.findByDateTirageIn(datesJouees);
-        // On transforme la liste en Map
-        Map<LocalDate, LotoTirage> resultsMap = tiragesOfficiels.stream()
-                .collect(Collectors.toMap(LotoTirage::getDateTirage, Function.identity()));
-        // Ajout de map au modèle
-        model.addAttribute("draws", resultsMap);
+        // Première page de l'historique du joueur (la suite est chargée au défilement via /bets/history)
+        UserBetService.PageHistorique historique = userBetService.recupererPageHistorique(user, null, null);
+        model.addAttribute("historique", historique);
+        model.addAttribute("nbBets", userBetService.compterGrilles(user));
 
         // Remplissage du bilan IA
         userBetService.remplirBilanUserIa(model);
@@ -1,15 +1,14 @@
 package com.analyseloto.loto.controller;
 
 import com.analyseloto.loto.dto.*;
-import com.analyseloto.loto.entity.LotoTirage;
-import com.analyseloto.loto.repository.LotoTirageRepository;
 import com.analyseloto.loto.service.AstroService;
+import com.analyseloto.loto.service.DrawAffinityService;
 import com.analyseloto.loto.service.LotoService;
 import com.analyseloto.loto.service.RateLimiterService;
+import com.analyseloto.loto.service.SimulationBatchService;
 import io.github.bucket4j.Bucket;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,7 +18,6 @@ import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/loto")
@@ -29,15 +27,12 @@ public class LotoController {
     private final LotoService service;
     private final AstroService astroService;
     private final RateLimiterService rateLimiterService;
-
-    // Repository (Ajouté pour fournir l'historique au simulateur)
-    private final LotoTirageRepository repository;
+    private final SimulationBatchService simulationBatchService;
 
     @PostMapping("/import")
-    public ResponseEntity<String> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file) {
         try {
-            service.importCsv(file);
-            return ResponseEntity.ok("Import réussi !");
+            return ResponseEntity.ok(service.importCsv(file));
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
         }
@@ -63,20 +58,14 @@ public class LotoController {
         }
 
         // 2. Récupérer la matrice d'affinité pour les Liens
-        Map<Integer, Map<Integer, Integer>> matrix = service.getMatriceAffinitesPublic();
+        DrawAffinityService.AffinityMatrix matrix = service.getMatriceAffinitesPublic();
         List<GraphDto.Edge> edges = new ArrayList<>();
 
-        // Création des Liens (On ne garde que les liens forts pour éviter un fouillis)
-        for (Map.Entry<Integer, Map<Integer, Integer>> sourceEntry : matrix.entrySet()) {
-            Integer source = sourceEntry.getKey();
-            Map<Integer, Integer> cibles = sourceEntry.getValue();
-
-            for (Map.Entry<Integer, Integer> entry : cibles.entrySet()) {
-                Integer target = entry.getKey();
-                Integer weight = entry.getValue();
-
-                // Règle : On affiche le lien seulement si source < target (pour éviter les doublons A-B et B-A)
-                if (source < target && weight > 25) {
+        // Création des Liens (On ne garde que les liens forts pour éviter un fouillis, une seule fois par paire source < target)
+        for (int target = 2; target <= 49; target++) {
+            for (int source = 1; source < target; source++) {
+                int weight = matrix.poids(source, target);
+                if (weight > 25) {
                     edges.add(new GraphDto.Edge(source, target, weight));
                 }
             }
@@ -96,15 +85,31 @@ public class LotoController {
             return ResponseEntity.badRequest().build();
         }
 
-        // CORRECTION : On passe l'historique des tirages à la nouvelle méthode optimisée
-        List<LotoTirage> history = repository.findAll(Sort.by(Sort.Direction.DESC, "dateTirage"));
-        return ResponseEntity.ok(service.simulerGrilleDetaillee(req.getBoules(), req.getDate(), history));
+        // L'historique est lu dans le store mémoire, sans requête BDD
+        return ResponseEntity.ok(service.simulerGrilleDetaillee(req.getBoules(), req.getDate()));
+    }
+
+    @PostMapping("/simuler/batch")
+    public ResponseEntity<?> simulerLot(@RequestBody SimuBatchRequest req, HttpServletRequest request) {
+        if (req.getGrilles() == null || req.getGrilles().isEmpty() || req.getGrilles().size() > SimulationBatchService.MAX_GRILLES) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Coût proportionnel à la taille du lot : un jeton par tranche de GRILLES_PAR_JETON grilles
+        long jetons = (req.getGrilles().size() + SimulationBatchService.GRILLES_PAR_JETON - 1) / SimulationBatchService.GRILLES_PAR_JETON;
+        if (!rateLimiterService.resolveBucket(request).tryConsume(jetons)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body("Veuillez ralentir ! Limite de grilles simulées par minute atteinte.");
+        }
+
+        // Évaluation parallèle, les grilles mal formées sont signalées (valide = false) sans bloquer le lot
+        return ResponseEntity.ok(simulationBatchService.simulerLot(req.getGrilles()));
     }
 
     @GetMapping("/generate")
     public ResponseEntity<?> generateGrid(
             @RequestParam("date") String dateStr,
-            @RequestParam(value = "count", defaultValue = "8") int count, // 8 par défaut (Matrice V10)
+            @RequestParam(value = "count", defaultValue = "" + LotoService.GRILLES_STANDARD) int count, // Sous le nombre de grilles du système : couverture réelle indiquée
             HttpServletRequest request) {
 
         // 1. LE BOUCLIER (Rate Limiter)
@@ -19,8 +19,8 @@ public class StatsController {
         var stats = lotoService.getStats(null);
 
         model.addAttribute("stats", stats);
-        // On passe aussi la matrice des affinités pour la Heatmap
-        model.addAttribute("matrice", lotoService.getMatriceAffinitesPublic());
+        // On passe aussi la matrice des affinités pour la Heatmap (triangle compact, voir DrawAffinityService.rang)
+        model.addAttribute("matrice", lotoService.getMatriceAffinitesPublic().triangle());
 
         return "stats";
     }
@@ -0,0 +1,48 @@
+package com.analyseloto.loto.dto;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Dernier état connu du moteur IA : score "Value" (impopularité) par numéro, EV et autorisation de jeu.
+ * Immuable, publié tel quel aux requêtes.
+ */
+@Getter
+public class AiScoreSnapshot {
+    public static final String MODELE_SECOURS = "SECOURS";
+
+    private final double[] scores; // Index 1 à 49
+    private final double evScore;
+    private final Boolean playAuthorized; // null si inconnu
+    private final String modelVersion;
+    private final Instant recupereLe;
+
+    public AiScoreSnapshot(double[] scores, double evScore, Boolean playAuthorized, String modelVersion, Instant recupereLe) {
+        this.scores = scores.clone();
+        this.evScore = evScore;
+        this.playAuthorized = playAuthorized;
+        this.modelVersion = modelVersion;
+        this.recupereLe = recupereLe;
+    }
+
+    /**
+     * Scores de secours quand le moteur est injoignable : bonus aux numéros > 31 (dates de naissance moins jouées)
+     */
+    public static AiScoreSnapshot secours() {
+        double[] scores = new double[50];
+        for (int i = 1; i <= 49; i++) scores[i] = (i > 31) ? 1.5 : 1.0;
+        return new AiScoreSnapshot(scores, 0.0, null, MODELE_SECOURS, Instant.now());
+    }
+
+    /**
+     * @return copie des scores (index 1 à 49)
+     */
+    public double[] getScores() {
+        return scores.clone();
+    }
+
+    public boolean isSecours() {
+        return MODELE_SECOURS.equals(modelVersion);
+    }
+}
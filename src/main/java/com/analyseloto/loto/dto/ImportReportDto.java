@@ -0,0 +1,19 @@
+package com.analyseloto.loto.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+public class ImportReportDto implements Serializable {
+    @Serial private static final long serialVersionUID = 1L;
+
+    private int lignesAnalysees; // Lignes de tirage reconnues (hors entêtes et lignes vides)
+    private int inseres;         // Nouveaux tirages enregistrés
+    private int ignores;         // Dates déjà connues (BDD ou doublon dans le fichier)
+    private int rejetes;         // Lignes illisibles ou numéros hors limites
+    private long dureeMs;
+}
@@ -0,0 +1,21 @@
+package com.analyseloto.loto.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class ReglementReportDto implements Serializable {
+    @Serial private static final long serialVersionUID = 1L;
+
+    private LocalDate dateTirage;
+    private int grillesReglees;   // Grilles dont le gain a été écrit
+    private int grillesGagnantes;
+    private double totalGains;
+    private long dureeMs;
+    private long grillesParSeconde;
+}
@@ -0,0 +1,14 @@
+package com.analyseloto.loto.dto;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class SimuBatchRequest implements Serializable {
+    @Serial private static final long serialVersionUID = 1L;
+
+    private List<List<Integer>> grilles; // Chaque grille : 2 à 5 numéros entre 1 et 49
+}
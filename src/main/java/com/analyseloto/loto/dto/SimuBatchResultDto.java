@@ -0,0 +1,33 @@
+package com.analyseloto.loto.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SimuBatchResultDto implements Serializable {
+    @Serial private static final long serialVersionUID = 1L;
+
+    private int nombreGrilles;
+    private int nombreTirages; // Taille de l'historique utilisé
+    private long dureeMs;
+    private List<GrilleResume> resultats; // Même ordre que la requête
+
+    @Data
+    @AllArgsConstructor
+    public static class GrilleResume implements Serializable {
+        @Serial private static final long serialVersionUID = 1L;
+
+        private List<Integer> boules; // Triées
+        private boolean valide;       // false si la grille est mal formée (doublon, hors 1-49, taille)
+        private int maxPaire;         // Nombre de sorties de la paire la plus fréquente
+        private int maxTrio;
+        private int maxQuartet;
+        private boolean dejaSortie;   // La combinaison complète de 5 numéros est déjà tombée
+        private double maxRatioDuo;   // Ratio réel / attendu de la meilleure paire
+    }
+}
@@ -0,0 +1,26 @@
+package com.analyseloto.loto.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+public class WheelVerificationDto implements Serializable {
+    @Serial private static final long serialVersionUID = 1L;
+
+    private int taillePiscine;
+    private int nombreGrilles;
+    private long dureeMs;
+    private int[] garanties;       // garanties[m] = t exact garanti si m numéros de la piscine sortent (m de 1 à 5)
+    private double[][] couverture; // couverture[m][t] = % des m-sous-ensembles de la piscine avec au moins t bons numéros
+
+    /**
+     * @return true si tout tirage contenant m numéros de la piscine donne au moins t bons numéros sur une grille
+     */
+    public boolean garantit(int t, int m) {
+        return m < garanties.length && garanties[m] >= t;
+    }
+}
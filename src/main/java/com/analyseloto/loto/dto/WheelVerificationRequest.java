@@ -0,0 +1,14 @@
+package com.analyseloto.loto.dto;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class WheelVerificationRequest implements Serializable {
+    @Serial private static final long serialVersionUID = 1L;
+
+    private List<List<Integer>> grilles; // Système candidat : grilles de 5 numéros, 6 à 20 numéros distincts au total
+}
@@ -0,0 +1,52 @@
+package com.analyseloto.loto.entity;
+
+import com.analyseloto.loto.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "email_outbox")
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destinataire;
+
+    @Column(nullable = false)
+    private String objet;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String contenu;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus statut;
+
+    private int tentatives;
+
+    // Pas d'envoi avant cette date (attente de ré-essai, ou réservation par un expéditeur)
+    @Column(nullable = false)
+    private LocalDateTime prochainEssai;
+
+    private LocalDateTime dateCreation;
+    private LocalDateTime dateEnvoi;
+
+    @Column(length = 1000)
+    private String derniereErreur;
+
+    public EmailOutbox(String destinataire, String objet, String contenu) {
+        this.destinataire = destinataire;
+        this.objet = objet;
+        this.contenu = contenu;
+        this.statut = OutboxStatus.EN_ATTENTE;
+        this.dateCreation = LocalDateTime.now();
+        this.prochainEssai = this.dateCreation;
+    }
+}
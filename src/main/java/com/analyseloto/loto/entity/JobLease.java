@@ -0,0 +1,31 @@
+package com.analyseloto.loto.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bail d'un job planifié : une ligne par job, réservée par l'instance qui l'exécute
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "job_lease")
+public class JobLease {
+    @Id
+    @Column(length = 100)
+    private String nom;
+
+    // Instance détentrice (null une fois libéré)
+    private String proprietaire;
+
+    // Bail disponible à partir de cette date : prolongée par le battement tant que le job tourne,
+    // puis écart minimal avant la prochaine exécution
+    @Column(nullable = false)
+    private LocalDateTime expireLe;
+
+    private LocalDateTime acquisLe;
+    private LocalDateTime dernierBattement;
+}
@@ -23,6 +23,15 @@ public class JobLog {
     @Column(length = 1000)         // Pour stocker un message d'erreur si besoin
     private String message;
 
+    // Progression des jobs de traitement en masse (null pour les autres)
+    private Integer elementsTotal;
+    private Integer elementsTraites;
+    private Integer elementsEnEchec;
+    private Double debitParSeconde;
+
+    // Point de reprise des jobs parcourant les utilisateurs par lots : id du dernier élément traité
+    private Long dernierIdTraite;
+
     public long getDurationInSeconds() {
         if (startTime == null || endTime == null) return 0;
         return java.time.Duration.between(startTime, endTime).toSeconds();
@@ -1,5 +1,7 @@
 package com.analyseloto.loto.entity;
 
+import com.analyseloto.loto.util.GridMask;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -51,6 +53,15 @@ public class LotoTirage {
         return List.of(boule1, boule2, boule3, boule4, boule5);
     }
 
+    /**
+     * Masque binaire des 5 boules, recalculé à chaque appel (toujours à jour après un setter)
+     * @return masque (voir GridMask)
+     */
+    @JsonIgnore
+    public long getMasque() {
+        return GridMask.of(boule1, boule2, boule3, boule4, boule5);
+    }
+
     public void addRank(LotoTirageRank rank) {
         ranks.add(rank);
         rank.setLotoTirage(this);
@@ -1,6 +1,8 @@
 package com.analyseloto.loto.entity;
 
 import com.analyseloto.loto.enums.BetType;
+import com.analyseloto.loto.util.GridMask;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,7 +12,10 @@ import java.time.LocalDate;
 @Entity
 @Data
 @NoArgsConstructor
-@Table(name = "user_bets")
+@Table(name = "user_bets", indexes = {
+        // Historique paginé du joueur (tableau de bord)
+        @Index(name = "idx_user_bets_historique", columnList = "user_id, dateJeu DESC, id DESC")
+})
 public class UserBet {
 
     @Id
@@ -43,6 +48,15 @@ public class UserBet {
 
     private Double gain; // Combien ça a rapporté (Null = pas encore tiré/vérifié)
 
+    /**
+     * Masque binaire des 5 boules jouées (0 pour un Code Loto)
+     * @return masque (voir GridMask)
+     */
+    @JsonIgnore
+    public long getMasque() {
+        return GridMask.of(b1, b2, b3, b4, b5);
+    }
+
     // Helper pour savoir si le pari est "fermé"
     public boolean isChecked() {
         return gain != null;
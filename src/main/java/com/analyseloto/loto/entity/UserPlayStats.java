@@ -0,0 +1,119 @@
+package com.analyseloto.loto.entity;
+
+import com.analyseloto.loto.enums.BetType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+
+/**
+ * Statistiques de jeu d'un joueur (style de jeu, performances par jour de tirage), tenues à jour par deltas :
+ * la page de statistiques lit une seule ligne quel que soit le nombre de grilles jouées.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "user_play_stats")
+public class UserPlayStats {
+    public static final int NB_BOULES = 49;
+    public static final int NB_CHANCES = 10;
+
+    @Id
+    private Long userId;
+
+    // Tous les paris (grilles et Codes Loto)
+    private int nbParis;
+    // Grilles de 5 numéros
+    private int nbGrilles;
+    private long sommeBoules;
+    private int nbPairs;
+
+    // frequencesBoules[n - 1] = nombre de grilles contenant la boule n
+    @Column(nullable = false)
+    private int[] frequencesBoules = new int[NB_BOULES];
+
+    // frequencesChance[c - 1] = nombre de grilles jouées avec le numéro chance c
+    @Column(nullable = false)
+    private int[] frequencesChance = new int[NB_CHANCES];
+
+    // Jours de tirage
+    private int nbJeuxLundi;
+    private double depenseLundi;
+    private double gainsLundi;
+    private int nbJeuxMercredi;
+    private double depenseMercredi;
+    private double gainsMercredi;
+    private int nbJeuxSamedi;
+    private double depenseSamedi;
+    private double gainsSamedi;
+
+    public UserPlayStats(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Prise en compte d'un pari
+     * @param bet pari ajouté (sens = 1) ou supprimé (sens = -1)
+     * @param sens 1 ou -1
+     */
+    public void appliquer(UserBet bet, int sens) {
+        nbParis += sens;
+        if (BetType.GRILLE.equals(bet.getType()) && bet.getB1() != null) {
+            nbGrilles += sens;
+            for (Integer n : new Integer[]{bet.getB1(), bet.getB2(), bet.getB3(), bet.getB4(), bet.getB5()}) {
+                if (n == null) continue;
+                sommeBoules += (long) sens * n;
+                if (n % 2 == 0) nbPairs += sens;
+                if (n >= 1 && n <= NB_BOULES) frequencesBoules[n - 1] += sens;
+            }
+            Integer chance = bet.getChance();
+            if (chance != null && chance >= 1 && chance <= NB_CHANCES) frequencesChance[chance - 1] += sens;
+        }
+        double gain = (bet.getGain() == null) ? 0.0 : bet.getGain();
+        ajouterJour(bet.getDateJeu().getDayOfWeek(), sens, sens * bet.getMise(), sens * gain);
+    }
+
+    /**
+     * Ajout de gains (règlement ou correction d'un gain) au jour de tirage concerné
+     */
+    public void ajouterGains(DayOfWeek jour, double gains) {
+        ajouterJour(jour, 0, 0.0, gains);
+    }
+
+    private void ajouterJour(DayOfWeek jour, int nbJeux, double depense, double gains) {
+        switch (jour) {
+            case MONDAY -> {
+                nbJeuxLundi += nbJeux;
+                depenseLundi += depense;
+                gainsLundi += gains;
+            }
+            case WEDNESDAY -> {
+                nbJeuxMercredi += nbJeux;
+                depenseMercredi += depense;
+                gainsMercredi += gains;
+            }
+            case SATURDAY -> {
+                nbJeuxSamedi += nbJeux;
+                depenseSamedi += depense;
+                gainsSamedi += gains;
+            }
+            default -> {
+                // Pas de tirage ce jour-là : non suivi
+            }
+        }
+    }
+
+    /**
+     * Colonne des gains d'un jour de tirage (mise à jour en masse au règlement)
+     * @return nom de colonne, null si aucun tirage ce jour-là
+     */
+    public static String colonneGains(DayOfWeek jour) {
+        return switch (jour) {
+            case MONDAY -> "gains_lundi";
+            case WEDNESDAY -> "gains_mercredi";
+            case SATURDAY -> "gains_samedi";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.analyseloto.loto.enums;
+
+public enum OutboxStatus {
+    EN_ATTENTE,
+    ENVOYE,
+    ECHEC_DEFINITIF
+}
@@ -15,13 +15,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Slf4j
 @Component
@@ -32,15 +35,23 @@ public class LotoJob {
     private final EmailService emailService;
     private final JobMonitorService jobMonitorService;
     private final FdjService fdjService;
+    private final WheelCatalogService wheelCatalogService;
+    private final MailDispatcher mailDispatcher;
+    private final EmailOutboxService emailOutboxService;
+    private final UserChunkIterator userChunkIterator;
+    private final JobLeaseService jobLeaseService;
+    private final UserPlayStatsService userPlayStatsService;
 
     // Repositories
     private final LotoTirageRepository tirageRepository;
     private final UserRepository userRepository;
     private final UserBetRepository betRepository;
 
+    // Lancements manuels en arrière-plan
+    private final ThreadPoolTaskExecutor adminExecutor;
+
     // Event
     private final ApplicationEventPublisher eventPublisher;
-    private final AtomicBoolean isOptimizing = new AtomicBoolean(false); // Le verrou
 
     /* Email de l'utilisateur ia */
     @Value("${user.ia.mail}")
@@ -48,6 +59,16 @@ public class LotoJob {
 
     private final static String LOG_ERREUR = "Erreur : ";
 
+    // Un bail par job, commun aux lancements planifiés et manuels (voir JobLeaseService)
+    private static final String BAIL_FDJ = "RECUPERER_DERNIER_TIRAGE";
+    private static final String BAIL_GEN_PRONOSTICS = "GEN_PRONOSTICS_IA";
+    private static final String BAIL_ENVOI_PRONOSTICS = "ENVOI_PRONOSTICS";
+    private static final String BAIL_ALERTE_BUDGET = "ALERTE_BUDGET_HEBDO";
+    private static final String BAIL_OPTIMISATION = "OPTIMISATION_QUOTIDIENNE_IA";
+    private static final String BAIL_STATS_JOUEURS = "RECONSTRUCTION_STATS_JOUEURS";
+    // Un même cron déclenché par plusieurs instances (horloges décalées) ne s'exécute qu'une fois
+    private static final Duration ECART_CRON = Duration.ofMinutes(5);
+
     /**
      * POINT D'ENTRÉE AUTOMATIQUE (CRON)
      * Cette méthode est appelée par Spring. Elle n'a pas d'argument.
@@ -55,14 +76,15 @@ public class LotoJob {
      */
     @Scheduled(cron = "${loto.jobs.cron.fdj-recovery}", zone = "Europe/Paris")
     public void scheduledJobFdj() {
-        executerRecuperationFdj(false);
+        jobLeaseService.executer(BAIL_FDJ, ECART_CRON, () -> executerRecuperationFdj(false));
     }
 
     /**
-     * Appel manuel du job de récupération des résultats FDJ (via API admin)
+     * Appel manuel du job de récupération des résultats FDJ (via API admin), sur le thread appelant
+     * @return false si une récupération est déjà en cours
      */
-    public void triggerRecupererResultatsFdj() {
-        executerRecuperationFdj(true);
+    public boolean triggerRecupererResultatsFdj() {
+        return jobLeaseService.executerManuel(BAIL_FDJ, Runnable::run, () -> executerRecuperationFdj(true));
     }
 
     /**
@@ -111,10 +133,19 @@ public class LotoJob {
 
     @Scheduled(cron = "${loto.jobs.cron.gen-pronos}", zone = "Europe/Paris")
     public void genererPronosticsDuJour() {
-        executerGenerationPronostics(false);
+        jobLeaseService.executer(BAIL_GEN_PRONOSTICS, ECART_CRON, () -> genererPronostics(false));
     }
 
-    public void executerGenerationPronostics(boolean force) {
+    /**
+     * Appel manuel de la génération des pronostics (via API admin), en arrière-plan
+     * @return false si une génération est déjà en cours
+     * @throws org.springframework.core.task.TaskRejectedException si trop de tâches d'administration sont en attente
+     */
+    public boolean executerGenerationPronostics(boolean force) {
+        return jobLeaseService.executerManuel(BAIL_GEN_PRONOSTICS, adminExecutor, () -> genererPronostics(force));
+    }
+
+    private void genererPronostics(boolean force) {
         log.info("🔮 Lancement du Job : Génération des pronostics de référence...");
         JobLog jobLog = jobMonitorService.startJob("GEN_PRONOSTICS_IA");
 
@@ -148,6 +179,7 @@ public class LotoJob {
                 if (force) {
                     log.info("♻️ Mode FORCE activé : Suppression des {} anciens pronostics...", existants.size());
                     betRepository.deleteAll(existants);
+                    userPlayStatsService.retirer(aiUser, existants);
                 } else {
                     log.info("⚠️ Pronostics déjà générés pour aujourd'hui. Annulation.");
                     jobMonitorService.endJob(jobLog, "SKIPPED", "Déjà existant");
@@ -158,6 +190,7 @@ public class LotoJob {
             // Génération optimisée
             List<PronosticResultDto> pronostics = lotoService.genererMultiplesPronostics(today, 5);
 
+            List<UserBet> enregistres = new ArrayList<>();
             for (PronosticResultDto prono : pronostics) {
                 UserBet bet = new UserBet();
                 bet.setUser(aiUser);
@@ -173,8 +206,9 @@ public class LotoJob {
                 bet.setChance(prono.getNumeroChance());
                 bet.setType(BetType.GRILLE);
 
-                betRepository.save(bet);
+                enregistres.add(betRepository.save(bet));
             }
+            userPlayStatsService.ajouter(aiUser, enregistres);
 
             log.info("✅ {} Pronostics enregistrés pour le compte {}", pronostics.size() ,aiUser.getEmail());
             jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), pronostics.size() + " grilles générées");
@@ -189,11 +223,10 @@ public class LotoJob {
 
     private double estimerProchainJackpot() {
         try {
-            List<LotoTirage> history = tirageRepository.findAll();
-            if (!history.isEmpty()) {
-                // On s'assure d'avoir le dernier tirage
-                history.sort((t1, t2) -> t2.getDateTirage().compareTo(t1.getDateTirage()));
-                LotoTirage last = history.get(0);
+            // Seul le dernier tirage (et ses rangs) est nécessaire
+            Optional<LotoTirage> dernier = tirageRepository.findFirstWithRanksByOrderByDateTirageDesc();
+            if (dernier.isPresent()) {
+                LotoTirage last = dernier.get();
 
                 Optional<LotoTirageRank> rank1 = last.getRanks().stream()
                         .filter(r -> r.getRankNumber() == 1)
@@ -227,113 +260,189 @@ public class LotoJob {
      */
     @Scheduled(cron = "${loto.jobs.cron.send-emails}", zone = "Europe/Paris")
     public void envoyerPronosticsPersonnalises() {
+        jobLeaseService.executer(BAIL_ENVOI_PRONOSTICS, ECART_CRON, this::diffuserPronosticsPersonnalises);
+    }
+
+    private void diffuserPronosticsPersonnalises() {
         log.info("📢 Lancement du Job Pronostics Personnalisés...");
 
-        JobLog jobLog = jobMonitorService.startJob("ENVOI_PRONOSTICS");
+        // Reprise après le dernier lot validé si l'envoi du jour a été interrompu
+        JobLog jobLog = jobMonitorService.startJobReprenable("ENVOI_PRONOSTICS");
         LocalDate today = LocalDate.now();
-        List<User> users = userRepository.findAll();
+        long repriseApres = (jobLog.getDernierIdTraite() == null) ? 0L : jobLog.getDernierIdTraite();
 
-        if (users.isEmpty()) {
-            log.warn("Aucun utilisateur trouvé en base.");
+        long abonnes = userRepository.countBySubscribeToEmailsTrueAndIdGreaterThan(repriseApres);
+        if (abonnes == 0) {
+            log.warn("Aucun abonné à traiter : pas d'envoi.");
+            jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), "Aucun destinataire.");
             return;
         }
 
-        for (User user : users) {
-            if (!user.isSubscribeToEmails()) continue;
-
-            if (user.getBirthDate() == null || user.getZodiacSign() == null || user.getZodiacSign().isEmpty()) {
-                log.info("L'utilisateur {} n'a pas d'infos astro. Pas d'email personnalisé.", user.getEmail());
-                continue;
-            }
-
-            try {
-                List<PronosticResultDto> pronostics = lotoService.genererMultiplesPronostics(today, 10);
-                String subject = "🎱 " + user.getFirstName() + ", vos numéros chance pour ce soir !";
-                String htmlBody = emailService.buildPersonalizedHtmlBody(pronostics, today, user.getFirstName());
-
-                emailService.sendHtmlEmail(user.getEmail(), subject, htmlBody);
-                log.info("✅ Mail envoyé avec succès à : {}", user.getEmail());
+        // Grilles et HTML identiques pour tous : calculés une seule fois, seul le prénom change
+        EmailService.GabaritMail gabarit;
+        try {
+            List<PronosticResultDto> pronostics = lotoService.genererMultiplesPronostics(today, 10);
+            gabarit = emailService.buildPronosticsTemplate(pronostics, today);
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la génération des pronostics à envoyer", e);
+            jobMonitorService.endJob(jobLog, JobExecutionStatus.FAILURE.getCode(), LOG_ERREUR + e.getMessage());
+            return;
+        }
 
-            } catch (Exception e) {
-                log.error("❌ Erreur lors de l'envoi pour l'utilisateur {}", user.getEmail(), e);
-                jobMonitorService.endJob(jobLog, JobExecutionStatus.FAILURE.getCode(), LOG_ERREUR + e.getMessage());
-                return;
-            }
+        MailDispatcher.Rapport rapport = new MailDispatcher.Rapport((int) abonnes);
+        Consumer<MailDispatcher.Rapport> progression =
+                r -> jobMonitorService.progression(jobLog, r.getTotal(), r.getTraites(), r.getEchecs(), r.getDebitParSeconde());
+        try {
+            // Abonnés par lots ; ceux sans infos astro ne reçoivent pas de mail personnalisé
+            userChunkIterator.parcourirUtilisateurs(jobLog, true, lot -> {
+                List<User> destinataires = lot.stream()
+                        .filter(u -> u.getBirthDate() != null && u.getZodiacSign() != null && !u.getZodiacSign().isEmpty())
+                        .toList();
+                rapport.ignorer(lot.size() - destinataires.size());
+                mailDispatcher.diffuser(destinataires, User::getEmail,
+                        user -> new MailDispatcher.Mail(user.getEmail(),
+                                "🎱 " + user.getFirstName() + ", vos numéros chance pour ce soir !",
+                                gabarit.personnaliser(user.getFirstName())),
+                        rapport, progression);
+            });
+        } catch (Exception e) {
+            log.error("❌ Envoi interrompu après l'utilisateur {}", jobLog.getDernierIdTraite(), e);
+            jobMonitorService.endJob(jobLog, JobExecutionStatus.FAILURE.getCode(), LOG_ERREUR + e.getMessage());
+            return;
+        }
+        rapport.terminer();
+        progression.accept(rapport);
+
+        // Les mails sont mis en file : leur remise au serveur SMTP se suit dans l'état de la file (jauges, page admin)
+        EmailOutboxService.EtatFile file = emailOutboxService.etatFile();
+        String bilan = rapport.getMisEnFile() + "/" + rapport.getTotal() + " mails mis en file en " + rapport.getDureeMs() / 1000
+                + " s (" + rapport.getDebitParSeconde() + " mails/s), " + rapport.getEchecs() + " échec(s) de rendu, "
+                + rapport.getIgnores() + " abonné(s) sans infos astro"
+                + ((repriseApres > 0) ? ", reprise après l'id " + repriseApres : "")
+                + " ; file d'envoi : " + file.getEnAttente() + " en attente, " + file.getEchecsDefinitifs() + " en échec définitif.";
+        if (rapport.getEchecs() == 0) {
+            jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), "Envoi pronostics terminé : " + bilan);
+        } else {
+            // Parcours complet : WARNING même sans aucun envoi réussi (pas de reprise à faire)
+            jobMonitorService.endJob(jobLog, JobExecutionStatus.WARNING.getCode(), bilan + " En échec : " + String.join(", ", rapport.getAdressesEnEchec()));
         }
-        jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), "Envoi pronostics terminé.");
-        log.info("🏁 Fin du Job d'envoi massif.");
+        log.info("🏁 Fin du Job d'envoi massif : {}", bilan);
     }
 
     @Scheduled(cron = "${loto.jobs.cron.budget-alert}", zone = "Europe/Paris")
     public void alerteBudgetHebdo() {
+        jobLeaseService.executer(BAIL_ALERTE_BUDGET, ECART_CRON, this::envoyerAlertesBudget);
+    }
+
+    private void envoyerAlertesBudget() {
         log.info("💰 Lancement du Job Coach Budgétaire...");
 
-        JobLog jobLog = jobMonitorService.startJob("ALERTE_BUGDET_HEBDO");
+        JobLog jobLog = jobMonitorService.startJobReprenable("ALERTE_BUGDET_HEBDO");
         LocalDate today = LocalDate.now();
         LocalDate oneWeekAgo = today.minusWeeks(1);
 
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd/MM");
         String periodeStr = "du " + oneWeekAgo.format(fmt) + " au " + today.format(fmt);
 
-        List<User> users = userRepository.findAll();
-        int countAlerts = 0;
-
-        for (User user : users) {
-            if (!user.isSubscribeToEmails()) continue;
-
-            List<UserBet> weeklyBets = betRepository.findByUser(user).stream()
-                    .filter(b -> b.getType() != null && b.getType().equals(BetType.GRILLE)
-                            && b.getDateJeu().isAfter(oneWeekAgo) && b.getDateJeu().isBefore(today.plusDays(1)))
-                    .toList();
-
-            if (weeklyBets.isEmpty()) continue;
-
-            double totalDepense = weeklyBets.stream().mapToDouble(UserBet::getMise).sum();
-            double totalGains = weeklyBets.stream().mapToDouble(UserBet::getGain).sum();
-            double benefice = totalGains - totalDepense;
-
-            if (totalDepense > 0) {
-                try {
-                    emailService.sendBudgetAlertEmail(
-                            user.getEmail(),
-                            user.getFirstName(),
-                            totalDepense,
-                            totalGains,
-                            benefice,
-                            periodeStr
-                    );
-                    countAlerts++;
-                    log.info("📩 Alerte budget envoyée à {} ({} €)", user.getEmail(), totalDepense);
-                } catch (Exception e) {
-                    log.error("Erreur envoi mail budget pour {}", user.getEmail(), e);
-                    jobMonitorService.endJob(jobLog, JobExecutionStatus.FAILURE.getCode(), LOG_ERREUR + e.getMessage());
-                    return;
-                }
-            }
+        // Une requête groupée par lot de joueurs actifs sur la semaine ; les mails d'un lot sont mis en file
+        // dans la transaction du lot, validée avec le point de reprise
+        int[] compteurs = new int[2]; // alertes, échecs
+        try {
+            userChunkIterator.parcourir(jobLog,
+                    (apresId, limite) -> betRepository.findBilansPeriode(oneWeekAgo, today, apresId, limite),
+                    UserBetRepository.BilanPeriode::getUserId,
+                    lot -> lot.forEach(bilan -> {
+                        try {
+                            emailService.sendBudgetAlertEmail(bilan.getEmail(), bilan.getFirstName(), bilan.getDepense(),
+                                    bilan.getGains(), bilan.getGains() - bilan.getDepense(), periodeStr);
+                            compteurs[0]++;
+                            log.info("📩 Alerte budget envoyée à {} ({} €, {} grilles)", bilan.getEmail(), bilan.getDepense(), bilan.getNbGrilles());
+                        } catch (Exception e) {
+                            compteurs[1]++;
+                            log.error("Erreur envoi mail budget pour {}", bilan.getEmail(), e);
+                        }
+                    }));
+        } catch (Exception e) {
+            log.error("❌ Coach Budgétaire interrompu après l'utilisateur {}", jobLog.getDernierIdTraite(), e);
+            jobMonitorService.endJob(jobLog, JobExecutionStatus.FAILURE.getCode(), LOG_ERREUR + e.getMessage());
+            return;
         }
-        jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), "Alerte budget hebdo terminé.");
-        log.info("🏁 Fin du Coach Budgétaire. {} alertes envoyées.", countAlerts);
+
+        String bilan = compteurs[0] + " alerte(s) envoyée(s), " + compteurs[1] + " échec(s).";
+        String statut = (compteurs[1] == 0) ? JobExecutionStatus.SUCCESS.getCode() : JobExecutionStatus.WARNING.getCode();
+        jobMonitorService.endJob(jobLog, statut, "Alerte budget hebdo terminé : " + bilan);
+        log.info("🏁 Fin du Coach Budgétaire. {}", bilan);
     }
 
     @Scheduled(cron = "${loto.jobs.cron.optimisation-ia}", zone = "Europe/Paris")
     public void optimisationQuotidienne() {
         log.info("⏰ Réveil du Job d'Optimisation IA...");
 
-        if (isOptimizing.get()) {
-            log.warn("⚠️ Une optimisation est déjà en cours. On annule ce lancement.");
-            return;
+        // Le bail remplace le verrou local : une seule optimisation à la fois, toutes instances confondues
+        jobLeaseService.executer(BAIL_OPTIMISATION, ECART_CRON, () -> {
+            JobLog jobLog = jobMonitorService.startJob("OPTIMISATION_QUOTIDIENNE_IA");
+            try {
+                lotoService.forceDailyOptimization();
+                jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), "Optimisation IA terminée.");
+            } catch (Exception e) {
+                log.error("❌ Echec de l'optimisation nocturne", e);
+                jobMonitorService.endJob(jobLog, JobExecutionStatus.FAILURE.getCode(), LOG_ERREUR + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Régénération du catalogue des systèmes réducteurs (appel manuel via API admin, plusieurs minutes, en arrière-plan).
+     * Sans bail : le catalogue est un fichier local à l'instance, chaque instance régénère le sien
+     * (une seule régénération à la fois par instance, voir WheelCatalogService.regenerer)
+     * @return false si une régénération est déjà en cours sur cette instance
+     * @throws org.springframework.core.task.TaskRejectedException si trop de tâches d'administration sont en attente
+     */
+    public boolean regenererCatalogueSystemes() {
+        if (wheelCatalogService.regenerationEnCours()) return false;
+        adminExecutor.execute(this::regenererCatalogue);
+        return true;
+    }
+
+    private void regenererCatalogue() {
+        log.info("🧩 Lancement du Job : Régénération du catalogue des systèmes réducteurs...");
+        JobLog jobLog = jobMonitorService.startJob("REGENERATION_CATALOGUE_SYSTEMES");
+        try {
+            int ameliores = wheelCatalogService.regenerer();
+            jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), ameliores + " système(s) amélioré(s).");
+        } catch (Exception e) {
+            log.error("❌ Echec de la régénération du catalogue", e);
+            jobMonitorService.endJob(jobLog, JobExecutionStatus.FAILURE.getCode(), LOG_ERREUR + e.getMessage());
         }
+    }
+
+    /**
+     * Reconstruction des statistiques de jeu depuis les grilles : rattrape les deltas perdus
+     * et construit les lignes des joueurs qui n'ont pas encore consulté leurs statistiques
+     */
+    @Scheduled(cron = "${loto.jobs.cron.stats-rebuild}", zone = "Europe/Paris")
+    public void reconstructionStatsJoueurs() {
+        jobLeaseService.executer(BAIL_STATS_JOUEURS, ECART_CRON, this::reconstruireStatsJoueurs);
+    }
+
+    /**
+     * Reconstruction des statistiques de jeu (appel manuel via API admin), en arrière-plan
+     * @return false si une reconstruction est déjà en cours
+     * @throws org.springframework.core.task.TaskRejectedException si trop de tâches d'administration sont en attente
+     */
+    public boolean reconstruireStatistiquesJoueurs() {
+        return jobLeaseService.executerManuel(BAIL_STATS_JOUEURS, adminExecutor, this::reconstruireStatsJoueurs);
+    }
 
-        JobLog jobLog = jobMonitorService.startJob("OPTIMISATION_QUOTIDIENNE_IA");
+    private void reconstruireStatsJoueurs() {
+        log.info("📊 Lancement du Job : Reconstruction des statistiques de jeu...");
+        JobLog jobLog = jobMonitorService.startJobReprenable("RECONSTRUCTION_STATS_JOUEURS");
         try {
-            isOptimizing.set(true);
-            lotoService.forceDailyOptimization();
-            jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), "Optimisation IA terminée.");
+            int joueurs = userChunkIterator.parcourirUtilisateurs(jobLog, false, userPlayStatsService::reconstruire);
+            jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), joueurs + " joueur(s) recalculé(s).");
         } catch (Exception e) {
-            log.error("❌ Echec de l'optimisation nocturne", e);
+            log.error("❌ Reconstruction des statistiques interrompue après l'utilisateur {}", jobLog.getDernierIdTraite(), e);
             jobMonitorService.endJob(jobLog, JobExecutionStatus.FAILURE.getCode(), LOG_ERREUR + e.getMessage());
-        } finally {
-            isOptimizing.set(false);
         }
     }
 }
@@ -7,6 +7,8 @@ import com.analyseloto.loto.enums.JobExecutionStatus;
 import com.analyseloto.loto.repository.ConfirmationTokenRepository;
 import com.analyseloto.loto.repository.PasswordResetTokenRepository;
 import com.analyseloto.loto.repository.UserRepository;
+import com.analyseloto.loto.service.EmailOutboxService;
+import com.analyseloto.loto.service.JobLeaseService;
 import com.analyseloto.loto.service.JobMonitorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +16,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -27,6 +30,12 @@ public class UserCleanupJob {
     private final UserRepository userRepository;
     // Services
     private final JobMonitorService jobMonitorService;
+    private final EmailOutboxService emailOutboxService;
+    private final JobLeaseService jobLeaseService;
+
+    private static final int JOURS_CONSERVATION_MAILS = 7;
+    // Un même cron déclenché par plusieurs instances ne s'exécute qu'une fois (voir JobLeaseService)
+    private static final Duration ECART_CRON = Duration.ofMinutes(5);
 
     /**
      * Job tous les matins à 4h, permettant de supprimer les tokens et user non activés
@@ -34,6 +43,10 @@ public class UserCleanupJob {
     @Scheduled(cron = "${loto.jobs.cron.user-cleanup}", zone = "Europe/Paris")
     @Transactional
     public void supprimerComptesNonActives() {
+        jobLeaseService.executer("SUPPRIMER_COMPTES_INACTIVES", ECART_CRON, this::supprimerComptes);
+    }
+
+    private void supprimerComptes() {
         log.info("🧹 Lancement du nettoyage des comptes non activés...");
 
         // Enregistrement début job
@@ -74,6 +87,10 @@ public class UserCleanupJob {
      */
     @Scheduled(cron = "${loto.jobs.cron.db-cleanup}", zone = "Europe/Paris")
     public void systemCleanup() {
+        jobLeaseService.executer("NETTOYAGE_BDD", ECART_CRON, this::nettoyerBdd);
+    }
+
+    private void nettoyerBdd() {
         log.info("🧹 Lancement du nettoyage de la base de données...");
 
         // Enregistrement début job
@@ -84,6 +101,10 @@ public class UserCleanupJob {
         passwordResetTokenRepository.deleteByExpiryDateBefore(LocalDateTime.now());
         log.info("Fin du nettoyage des tokens de renouvellement de mot de passe expirés.");
 
+        // Purge de la file d'envoi (les échecs définitifs sont conservés)
+        int mailsPurges = emailOutboxService.purgerEnvoyes(JOURS_CONSERVATION_MAILS);
+        log.info("{} mail(s) envoyé(s) purgé(s) de la file d'envoi.", mailsPurges);
+
         // Enregistrement log
         jobMonitorService.endJob(jobLog, JobExecutionStatus.SUCCESS.getCode(), "Nettoyage BDD terminé.");
 
@@ -0,0 +1,39 @@
+package com.analyseloto.loto.repository;
+
+import com.analyseloto.loto.entity.EmailOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Mise en file des mails en masse, hors Hibernate : un INSERT par paquets, dans la transaction de l'appelant
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmailOutboxBulkRepository {
+    private static final int TAILLE_PAQUET = 500;
+
+    private static final String INSERT_MAIL =
+            "INSERT INTO email_outbox (destinataire, objet, contenu, statut, tentatives, prochain_essai, date_creation)"
+                    + " VALUES (?, ?, ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Enregistrement d'un lot de mails à envoyer
+     * @param mails mails (nouveaux, non persistés)
+     */
+    public void enregistrer(List<EmailOutbox> mails) {
+        jdbcTemplate.batchUpdate(INSERT_MAIL, mails, TAILLE_PAQUET, (ps, e) -> {
+            ps.setString(1, e.getDestinataire());
+            ps.setString(2, e.getObjet());
+            ps.setString(3, e.getContenu());
+            ps.setString(4, e.getStatut().name());
+            ps.setTimestamp(5, Timestamp.valueOf(e.getProchainEssai()));
+            ps.setTimestamp(6, Timestamp.valueOf(e.getDateCreation()));
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.analyseloto.loto.repository;
+
+import com.analyseloto.loto.entity.EmailOutbox;
+import com.analyseloto.loto.enums.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    /**
+     * Mails à envoyer, verrouillés en écriture ; les lignes déjà verrouillées par une autre instance sont sautées
+     * (lock.timeout = -2 : SKIP LOCKED)
+     * @param statut statut recherché
+     * @param maintenant date de référence
+     * @param page taille du lot
+     * @return mails à envoyer, du plus ancien au plus récent
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.statut = :statut AND e.prochainEssai <= :maintenant ORDER BY e.id")
+    List<EmailOutbox> findAEnvoyer(OutboxStatus statut, LocalDateTime maintenant, Pageable page);
+
+    /**
+     * Nombre de mails dans un statut (index sur statut, prochain_essai)
+     * @param statut statut recherché
+     * @return nombre de mails
+     */
+    long countByStatut(OutboxStatus statut);
+
+    /**
+     * Purge des mails envoyés avant une date
+     * @param date date limite
+     * @return nombre de lignes supprimées
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutbox e WHERE e.statut = com.analyseloto.loto.enums.OutboxStatus.ENVOYE AND e.dateEnvoi < :date")
+    int supprimerEnvoyesAvant(LocalDateTime date);
+}
@@ -0,0 +1,66 @@
+package com.analyseloto.loto.repository;
+
+import com.analyseloto.loto.entity.JobLease;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+    /**
+     * Création de la ligne d'un bail (sans effet si elle existe déjà)
+     * @param nom nom du bail
+     * @param expireLe date de disponibilité initiale
+     * @return nombre de lignes insérées
+     */
+    @Modifying
+    @Query(value = "INSERT INTO job_lease (nom, expire_le) VALUES (:nom, :expireLe) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int creerSiAbsent(String nom, LocalDateTime expireLe);
+
+    /**
+     * Bail disponible, verrouillé en écriture ; s'il est déjà verrouillé par une autre instance, il est sauté
+     * (lock.timeout = -2 : SKIP LOCKED)
+     * @param nom nom du bail
+     * @param maintenant date de référence
+     * @return bail s'il est libre et non verrouillé
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM JobLease b WHERE b.nom = :nom AND b.expireLe <= :maintenant")
+    Optional<JobLease> findDisponible(String nom, LocalDateTime maintenant);
+
+    /**
+     * Bail sans propriétaire (ou expiré), verrouillé en écriture, sans attendre l'écart minimal laissé par la dernière
+     * exécution : lancements manuels (lock.timeout = -2 : SKIP LOCKED)
+     * @param nom nom du bail
+     * @param maintenant date de référence
+     * @return bail s'il n'est détenu par aucune instance et non verrouillé
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM JobLease b WHERE b.nom = :nom AND (b.proprietaire IS NULL OR b.expireLe <= :maintenant)")
+    Optional<JobLease> findLibre(String nom, LocalDateTime maintenant);
+
+    /**
+     * Prolongation d'un bail détenu
+     * @return 0 si le bail n'est plus détenu par cette instance
+     */
+    @Modifying
+    @Query("UPDATE JobLease b SET b.expireLe = :expireLe, b.dernierBattement = :maintenant WHERE b.nom = :nom AND b.proprietaire = :proprietaire")
+    int prolonger(String nom, String proprietaire, LocalDateTime expireLe, LocalDateTime maintenant);
+
+    /**
+     * Libération d'un bail détenu
+     * @param expireLe prochaine disponibilité (écart minimal entre deux exécutions)
+     * @return 0 si le bail n'est plus détenu par cette instance
+     */
+    @Modifying
+    @Query("UPDATE JobLease b SET b.proprietaire = NULL, b.expireLe = :expireLe WHERE b.nom = :nom AND b.proprietaire = :proprietaire")
+    int liberer(String nom, String proprietaire, LocalDateTime expireLe);
+}
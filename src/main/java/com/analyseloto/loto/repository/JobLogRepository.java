@@ -4,8 +4,10 @@ import com.analyseloto.loto.entity.JobLog;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface JobLogRepository extends JpaRepository<JobLog, Long> {
     List<JobLog> findByStartTimeAfterOrderByStartTimeDesc(java.time.LocalDateTime time);
     List<JobLog> findAllByOrderByStartTimeDesc();
+    Optional<JobLog> findFirstByJobNameOrderByStartTimeDesc(String jobName);
 }
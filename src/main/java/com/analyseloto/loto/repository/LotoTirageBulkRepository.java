@@ -0,0 +1,52 @@
+package com.analyseloto.loto.repository;
+
+import com.analyseloto.loto.entity.LotoTirage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * Écritures en masse sur la table tirage (imports d'archives), hors Hibernate :
+ * avec des ids IDENTITY, Hibernate ne peut pas regrouper les INSERT.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LotoTirageBulkRepository {
+    private static final String INSERT = "INSERT INTO tirage (date_tirage, boule1, boule2, boule3, boule4, boule5, numero_chance) VALUES ";
+    private static final String VALEURS = "(?, ?, ?, ?, ?, ?, ?)";
+    // Seule contrainte unique hors PK : date_tirage. Sans cible explicite, la syntaxe est aussi acceptée par H2 (tests)
+    private static final String CONFLIT = " ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insertion multi-lignes en une seule requête, les dates déjà présentes sont ignorées
+     * @param tirages tirages à insérer
+     * @return nombre de lignes réellement insérées
+     */
+    public int insererSansDoublons(List<LotoTirage> tirages) {
+        if (tirages.isEmpty()) return 0;
+
+        StringBuilder sql = new StringBuilder(INSERT.length() + tirages.size() * (VALEURS.length() + 2) + CONFLIT.length());
+        sql.append(INSERT);
+        Object[] params = new Object[tirages.size() * 7];
+        int p = 0;
+        for (int i = 0; i < tirages.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(VALEURS);
+            LotoTirage t = tirages.get(i);
+            params[p++] = Date.valueOf(t.getDateTirage());
+            params[p++] = t.getBoule1();
+            params[p++] = t.getBoule2();
+            params[p++] = t.getBoule3();
+            params[p++] = t.getBoule4();
+            params[p++] = t.getBoule5();
+            params[p++] = t.getNumeroChance();
+        }
+        sql.append(CONFLIT);
+        return jdbcTemplate.update(sql.toString(), params);
+    }
+}
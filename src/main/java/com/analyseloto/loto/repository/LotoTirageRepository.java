@@ -1,6 +1,7 @@
 package com.analyseloto.loto.repository;
 
 import com.analyseloto.loto.entity.LotoTirage;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -32,6 +33,13 @@ public interface LotoTirageRepository extends JpaRepository<LotoTirage, Long> {
      */
     Optional<LotoTirage> findTopByOrderByDateTirageDesc();
 
+    /**
+     * Récupére le tirage le plus récent avec ses rangs (évite le lazy-loading hors transaction)
+     * @return dernier tirage avec ses rangs (vide si aucun tirage)
+     */
+    @EntityGraph(attributePaths = "ranks")
+    Optional<LotoTirage> findFirstWithRanksByOrderByDateTirageDesc();
+
     // Crée une petite interface (Projection)
     public interface TirageMinimal {
         LocalDate getDateTirage();
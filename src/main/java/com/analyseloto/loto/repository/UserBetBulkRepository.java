@@ -0,0 +1,127 @@
+package com.analyseloto.loto.repository;
+
+import com.analyseloto.loto.util.GridMask;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Lectures / écritures en masse sur user_bets (règlement des gains), hors Hibernate :
+ * pas d'entités chargées, pas de dirty-checking, des UPDATE envoyés par paquets.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBetBulkRepository {
+    private static final String SELECT_NON_REGLES =
+            "SELECT id, user_id, b1, b2, b3, b4, b5, chance FROM user_bets WHERE date_jeu = ? AND gain IS NULL";
+    // "gain IS NULL" : un re-run ou un règlement concurrent n'écrase jamais un gain déjà attribué
+    private static final String UPDATE_GAIN = "UPDATE user_bets SET gain = ? WHERE id = ? AND gain IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Grilles d'une date de jeu sans gain attribué, sous forme de colonnes primitives
+     * @param dateJeu date de jeu
+     * @return grilles à régler
+     */
+    public GrillesNonReglees chargerNonReglees(LocalDate dateJeu) {
+        GrillesNonReglees grilles = new GrillesNonReglees();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_NON_REGLES);
+            ps.setFetchSize(5_000);
+            ps.setDate(1, Date.valueOf(dateJeu));
+            return ps;
+        }, (ResultSet rs) -> {
+            grilles.ajouter(rs.getLong(1), rs.getLong(2),
+                    GridMask.of(rs.getObject(3, Integer.class), rs.getObject(4, Integer.class),
+                            rs.getObject(5, Integer.class), rs.getObject(6, Integer.class), rs.getObject(7, Integer.class)),
+                    rs.getObject(8, Integer.class));
+        });
+        return grilles;
+    }
+
+    /**
+     * Écriture des gains par paquets (un aller-retour JDBC par paquet)
+     * @param ids identifiants des grilles
+     * @param gains gains correspondants
+     * @param debut premier index à écrire
+     * @param fin index de fin (exclu)
+     * @return lignes mises à jour par grille du paquet (0 : gain déjà attribué entre-temps)
+     */
+    public int[] enregistrerGains(long[] ids, double[] gains, int debut, int fin) {
+        int[] resultats = jdbcTemplate.batchUpdate(UPDATE_GAIN, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setDouble(1, gains[debut + i]);
+                ps.setLong(2, ids[debut + i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return fin - debut;
+            }
+        });
+        for (int i = 0; i < resultats.length; i++) {
+            // SUCCESS_NO_INFO (-2) : le driver n'a pas remonté le compte, la ligne est considérée comme écrite
+            if (resultats[i] == java.sql.Statement.SUCCESS_NO_INFO) resultats[i] = 1;
+        }
+        return resultats;
+    }
+
+    /**
+     * Grilles à régler : une colonne primitive par attribut
+     */
+    public static final class GrillesNonReglees {
+        private long[] ids = new long[1024];
+        private long[] userIds = new long[1024];
+        private long[] masques = new long[1024];
+        private int[] chances = new int[1024]; // 0 = pas de numéro chance
+        private int taille = 0;
+
+        void ajouter(long id, long userId, long masque, Integer chance) {
+            if (taille == ids.length) {
+                int capacite = taille * 2;
+                ids = Arrays.copyOf(ids, capacite);
+                userIds = Arrays.copyOf(userIds, capacite);
+                masques = Arrays.copyOf(masques, capacite);
+                chances = Arrays.copyOf(chances, capacite);
+            }
+            ids[taille] = id;
+            userIds[taille] = userId;
+            masques[taille] = masque;
+            chances[taille] = (chance == null) ? 0 : chance;
+            taille++;
+        }
+
+        public int taille() {
+            return taille;
+        }
+
+        public long[] ids() {
+            return ids;
+        }
+
+        public long userId(int i) {
+            return userIds[i];
+        }
+
+        public long masque(int i) {
+            return masques[i];
+        }
+
+        /**
+         * @return numéro chance joué, ou null (Code Loto)
+         */
+        public Integer chance(int i) {
+            return (chances[i] == 0) ? null : chances[i];
+        }
+    }
+}
@@ -2,9 +2,15 @@ package com.analyseloto.loto.repository;
 
 import com.analyseloto.loto.entity.User;
 import com.analyseloto.loto.entity.UserBet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface UserBetRepository extends JpaRepository<UserBet, Long> {
@@ -43,4 +49,64 @@ public interface UserBetRepository extends JpaRepository<UserBet, Long> {
      * @return liste des grilles
      */
     List<UserBet> findByUser(User user);
+
+    List<UserBet> findByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Nombre de grilles d'un utilisateur
+     * @param user utilisateur
+     * @return nombre de grilles
+     */
+    long countByUser(User user);
+
+    /**
+     * Première page de l'historique d'un utilisateur, chaque grille avec le tirage officiel de sa date (null si pas encore tiré)
+     * @param user utilisateur
+     * @param limit taille de la page
+     * @return couples [grille, tirage], du plus récent au plus ancien
+     */
+    @Query("SELECT b, t FROM UserBet b LEFT JOIN LotoTirage t ON t.dateTirage = b.dateJeu "
+            + "WHERE b.user = :user ORDER BY b.dateJeu DESC, b.id DESC")
+    List<Object[]> findPremierePageHistorique(User user, Limit limit);
+
+    /**
+     * Page suivante de l'historique : pagination par clé sur (date de jeu, id), servie par idx_user_bets_historique
+     * @param user utilisateur
+     * @param apresDate date de jeu de la dernière grille déjà affichée
+     * @param apresId id de la dernière grille déjà affichée
+     * @param limit taille de la page
+     * @return couples [grille, tirage], du plus récent au plus ancien
+     */
+    @Query("SELECT b, t FROM UserBet b LEFT JOIN LotoTirage t ON t.dateTirage = b.dateJeu "
+            + "WHERE b.user = :user AND (b.dateJeu < :apresDate OR (b.dateJeu = :apresDate AND b.id < :apresId)) "
+            + "ORDER BY b.dateJeu DESC, b.id DESC")
+    List<Object[]> findPageHistorique(User user, LocalDate apresDate, Long apresId, Limit limit);
+
+    /**
+     * Bilan de la période par joueur abonné aux emails, en une requête groupée (grilles uniquement).
+     * Lu par lots successifs sur l'id joueur (voir UserChunkIterator)
+     * @param debut début de période (exclu)
+     * @param fin fin de période (incluse)
+     * @param apresId id du dernier joueur déjà traité (0 pour commencer)
+     * @param limit taille du lot
+     * @return un bilan par joueur ayant misé sur la période, par id croissant
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u.id AS userId, u.email AS email, u.firstName AS firstName, "
+            + "SUM(b.mise) AS depense, COALESCE(SUM(b.gain), 0) AS gains, COUNT(b) AS nbGrilles "
+            + "FROM UserBet b JOIN b.user u "
+            + "WHERE u.subscribeToEmails = true AND u.id > :apresId AND b.type = com.analyseloto.loto.enums.BetType.GRILLE "
+            + "AND b.dateJeu > :debut AND b.dateJeu <= :fin "
+            + "GROUP BY u.id, u.email, u.firstName HAVING SUM(b.mise) > 0 ORDER BY u.id")
+    List<BilanPeriode> findBilansPeriode(LocalDate debut, LocalDate fin, Long apresId, Limit limit);
+
+    // Projection du bilan d'un joueur sur une période
+    interface BilanPeriode {
+        Long getUserId();
+        String getEmail();
+        String getFirstName();
+        double getDepense();
+        double getGains();
+        long getNbGrilles();
+    }
 }
@@ -0,0 +1,116 @@
+package com.analyseloto.loto.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bilans cumulés des joueurs d'un tirage, hors Hibernate : une lecture des bilans précédents (fenêtre par joueur),
+ * une écriture par paquets sur la clé unique (user_id, date_bilan).
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBilanBulkRepository {
+    private static final int TAILLE_PAQUET = 1_000;
+
+    // Dernier bilan strictement antérieur à la date, pour chaque joueur ayant une grille ce jour-là
+    private static final String SELECT_PRECEDENTS =
+            "SELECT user_id, total_depense, total_gains, nb_grilles_jouees, nb_grilles_gagnantes FROM ("
+                    + " SELECT user_id, total_depense, total_gains, nb_grilles_jouees, nb_grilles_gagnantes,"
+                    + " ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY date_bilan DESC) AS rang"
+                    + " FROM user_bilan"
+                    + " WHERE date_bilan < ? AND user_id IN (SELECT user_id FROM user_bets WHERE date_jeu = ?)"
+                    + ") precedents WHERE rang = 1";
+
+    // Upsert sur la clé unique (user_id, date_bilan) : un re-run du même tirage remplace le bilan du jour.
+    // MERGE standard plutôt que ON CONFLICT ... DO UPDATE : accepté par PostgreSQL 15 comme par H2 (tests)
+    private static final String MERGE_BILAN =
+            "MERGE INTO user_bilan b USING (VALUES (?, ?, ?, ?, ?, ?, ?, ?))"
+                    + " AS v (user_id, date_bilan, total_depense, total_gains, solde, roi, nb_grilles_jouees, nb_grilles_gagnantes)"
+                    + " ON b.user_id = v.user_id AND b.date_bilan = v.date_bilan"
+                    + " WHEN MATCHED THEN UPDATE SET total_depense = v.total_depense, total_gains = v.total_gains,"
+                    + " solde = v.solde, roi = v.roi, nb_grilles_jouees = v.nb_grilles_jouees, nb_grilles_gagnantes = v.nb_grilles_gagnantes"
+                    + " WHEN NOT MATCHED THEN INSERT (user_id, date_bilan, total_depense, total_gains, solde, roi, nb_grilles_jouees, nb_grilles_gagnantes)"
+                    + " VALUES (v.user_id, v.date_bilan, v.total_depense, v.total_gains, v.solde, v.roi, v.nb_grilles_jouees, v.nb_grilles_gagnantes)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Cumuls arrêtés au tirage précédent, pour les joueurs d'une date de jeu
+     * @param dateJeu date de jeu
+     * @return cumul par id utilisateur (absent : premier bilan du joueur)
+     */
+    public Map<Long, Cumul> chargerPrecedents(LocalDate dateJeu) {
+        Map<Long, Cumul> precedents = new HashMap<>();
+        Date date = Date.valueOf(dateJeu);
+        jdbcTemplate.query(SELECT_PRECEDENTS, rs -> {
+            long userId = rs.getLong(1);
+            precedents.put(userId, new Cumul(userId, rs.getDouble(2), rs.getDouble(3), rs.getInt(4), rs.getInt(5)));
+        }, date, date);
+        return precedents;
+    }
+
+    /**
+     * Écriture des bilans d'une date (insertion, ou remplacement du bilan existant)
+     * @param dateBilan date des bilans
+     * @param cumuls cumuls à enregistrer
+     */
+    public void enregistrer(LocalDate dateBilan, List<Cumul> cumuls) {
+        Date date = Date.valueOf(dateBilan);
+        jdbcTemplate.batchUpdate(MERGE_BILAN, cumuls, TAILLE_PAQUET, (ps, c) -> {
+            ps.setLong(1, c.getUserId());
+            ps.setDate(2, date);
+            ps.setDouble(3, c.getDepense());
+            ps.setDouble(4, c.getGains());
+            ps.setDouble(5, c.getSolde());
+            ps.setDouble(6, c.getRoi());
+            ps.setInt(7, c.getNbGrilles());
+            ps.setInt(8, c.getNbGagnantes());
+        });
+    }
+
+    /**
+     * Cumuls financiers d'un joueur à une date
+     */
+    @Getter
+    public static final class Cumul {
+        private final long userId;
+        private final double depense;
+        private final double gains;
+        private final int nbGrilles;
+        private final int nbGagnantes;
+
+        public Cumul(long userId, double depense, double gains, int nbGrilles, int nbGagnantes) {
+            this.userId = userId;
+            this.depense = depense;
+            this.gains = gains;
+            this.nbGrilles = nbGrilles;
+            this.nbGagnantes = nbGagnantes;
+        }
+
+        /**
+         * Cumul après ajout des résultats d'un tirage
+         */
+        public Cumul plus(double depenseJour, double gainsJour, int nbGrillesJour, int nbGagnantesJour) {
+            return new Cumul(userId, depense + depenseJour, gains + gainsJour, nbGrilles + nbGrillesJour, nbGagnantes + nbGagnantesJour);
+        }
+
+        public double getSolde() {
+            return gains - depense;
+        }
+
+        /**
+         * ROI global en pourcentage (0 tant que rien n'a été misé)
+         */
+        public double getRoi() {
+            return (depense > 0) ? (getSolde() / depense) * 100 : 0.0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.analyseloto.loto.repository;
+
+import com.analyseloto.loto.entity.UserPlayStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Mises à jour en masse des statistiques de jeu (règlement d'un tirage), hors Hibernate
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserPlayStatsBulkRepository {
+    private static final int TAILLE_PAQUET = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ajout des gains réglés d'un tirage, par paquets (les joueurs sans statistiques construites sont ignorés :
+     * leurs gains seront lus depuis les grilles à la construction)
+     * @param jour jour du tirage
+     * @param gainsParJoueur gains par id utilisateur
+     */
+    public void ajouterGains(DayOfWeek jour, Map<Long, Double> gainsParJoueur) {
+        String colonne = UserPlayStats.colonneGains(jour);
+        if (colonne == null || gainsParJoueur.isEmpty()) return;
+        String sql = "UPDATE user_play_stats SET " + colonne + " = " + colonne + " + ? WHERE user_id = ?";
+        jdbcTemplate.batchUpdate(sql, new ArrayList<>(gainsParJoueur.entrySet()), TAILLE_PAQUET, (ps, e) -> {
+            ps.setDouble(1, e.getValue());
+            ps.setLong(2, e.getKey());
+        });
+    }
+}
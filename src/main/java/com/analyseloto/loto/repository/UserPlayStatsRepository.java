@@ -0,0 +1,20 @@
+package com.analyseloto.loto.repository;
+
+import com.analyseloto.loto.entity.UserPlayStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface UserPlayStatsRepository extends JpaRepository<UserPlayStats, Long> {
+    /**
+     * Statistiques d'un joueur, verrouillées en écriture le temps d'appliquer un delta
+     * @param userId id utilisateur
+     * @return statistiques (absentes tant qu'elles n'ont pas été construites)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserPlayStats s WHERE s.userId = :userId")
+    Optional<UserPlayStats> findVerrouille(Long userId);
+}
@@ -1,6 +1,7 @@
 package com.analyseloto.loto.repository;
 
 import com.analyseloto.loto.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -11,4 +12,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRole(String role);
     boolean existsByUsername(String username);
     Optional<User> findByEmailOrUsername(String email, String username);
+
+    // Parcours par lots (pagination par clé sur l'id, voir UserChunkIterator)
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    List<User> findBySubscribeToEmailsTrueAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    long countBySubscribeToEmailsTrueAndIdGreaterThan(Long id);
 }
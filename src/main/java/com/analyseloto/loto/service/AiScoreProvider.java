@@ -0,0 +1,14 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.AiScoreSnapshot;
+
+/**
+ * Source des scores IA par numéro. La lecture ne fait jamais d'appel réseau : elle renvoie le dernier état publié.
+ */
+public interface AiScoreProvider {
+
+    /**
+     * @return dernier état connu (ou les scores de secours si le moteur est indisponible)
+     */
+    AiScoreSnapshot snapshot();
+}
@@ -0,0 +1,86 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.ReglementReportDto;
+import com.analyseloto.loto.entity.LotoTirage;
+import com.analyseloto.loto.repository.UserBetBulkRepository;
+import com.analyseloto.loto.util.LotoMetrics;
+import com.analyseloto.loto.util.PrizeTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Règlement des grilles joueurs le soir du tirage, en mode ensembliste :
+ * une lecture JDBC des grilles non réglées, un classement par masque binaire
+ * contre une table de gains construite une seule fois, puis des UPDATE par paquets.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BetSettlementService {
+    // Nombre de grilles par batch JDBC (chaque paquet est validé indépendamment)
+    private static final int TAILLE_PAQUET = 1_000;
+
+    // Débit de règlement : rate(loto.reglement.grilles) sur le tableau de bord
+    private static final Timer TIMER_REGLEMENT = Timer.builder("loto.reglement")
+            .description("Durée du règlement des grilles d'un tirage").register(Metrics.globalRegistry);
+    private static final Counter GRILLES_REGLEES = LotoMetrics.compteur("loto.reglement.grilles", "Grilles réglées");
+    private static final Counter GRILLES_GAGNANTES = LotoMetrics.compteur("loto.reglement.gagnantes", "Grilles réglées gagnantes");
+
+    private final UserBetBulkRepository userBetBulkRepository;
+    private final UserPlayStatsService userPlayStatsService;
+
+    /**
+     * Calcul et enregistrement des gains de toutes les grilles non réglées du tirage
+     * @param tirage tirage officiel (avec ses rapports de gains)
+     * @return rapport de règlement
+     */
+    public ReglementReportDto regler(LotoTirage tirage) {
+        long start = System.currentTimeMillis();
+        PrizeTable table = PrizeTable.of(tirage);
+
+        UserBetBulkRepository.GrillesNonReglees grilles = userBetBulkRepository.chargerNonReglees(tirage.getDateTirage());
+        int n = grilles.taille();
+        double[] gains = new double[n];
+        int gagnantes = 0;
+        double total = 0.0;
+        for (int i = 0; i < n; i++) {
+            double gain = table.gain(grilles.masque(i), grilles.chance(i));
+            gains[i] = gain;
+            if (gain > 0) {
+                gagnantes++;
+                total += gain;
+            }
+        }
+
+        int reglees = 0;
+        // Gains effectivement écrits, par joueur (report dans les statistiques de jeu)
+        Map<Long, Double> gainsParJoueur = new HashMap<>();
+        for (int debut = 0; debut < n; debut += TAILLE_PAQUET) {
+            int[] ecrites = userBetBulkRepository.enregistrerGains(grilles.ids(), gains, debut, Math.min(n, debut + TAILLE_PAQUET));
+            for (int j = 0; j < ecrites.length; j++) {
+                if (ecrites[j] == 0) continue;
+                reglees += ecrites[j];
+                int i = debut + j;
+                if (gains[i] > 0) gainsParJoueur.merge(grilles.userId(i), gains[i], Double::sum);
+            }
+        }
+        userPlayStatsService.ajouterGainsReglement(tirage.getDateTirage(), gainsParJoueur);
+
+        long duree = System.currentTimeMillis() - start;
+        TIMER_REGLEMENT.record(duree, TimeUnit.MILLISECONDS);
+        GRILLES_REGLEES.increment(reglees);
+        GRILLES_GAGNANTES.increment(gagnantes);
+        long debit = (duree > 0) ? (reglees * 1000L / duree) : reglees;
+        log.info("💶 [REGLEMENT] Tirage du {} : {} grilles réglées ({} gagnantes, {} €) en {} ms ({} grilles/s).",
+                tirage.getDateTirage(), reglees, gagnantes, Math.round(total * 100.0) / 100.0, duree, debit);
+        return new ReglementReportDto(tirage.getDateTirage(), reglees, gagnantes, total, duree, debit);
+    }
+}
@@ -0,0 +1,57 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.event.NouveauTirageEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Invalidation des caches sur toutes les instances quand l'historique change (nouveau tirage, import, ajout manuel).
+ * L'instance à l'origine passe le L2 à une nouvelle génération, vide son L1 et publie sur CANAL ;
+ * les autres rechargent leur historique (stats, index, matrices) et vident leur L1.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheInvalidationService {
+    public static final String CANAL = "loto:cache:invalidation";
+    private static final String SEPARATEUR = "|";
+
+    private final CacheL2 cacheL2;
+    private final PronosticCache pronosticCache;
+    private final DrawHistoryStore drawHistoryStore;
+
+    // Identifiant de cette instance, pour ignorer nos propres publications
+    private final String instance = UUID.randomUUID().toString();
+
+    /**
+     * Invalidation locale puis diffusion aux autres instances
+     * @param raison raison (logs)
+     */
+    public void invaliderPartout(String raison) {
+        cacheL2.nouvelleGeneration();
+        pronosticCache.invaliderL1();
+        cacheL2.publier(instance + SEPARATEUR + raison);
+        log.info("🧹 [CACHE] Invalidation diffusée : {}", raison);
+    }
+
+    /**
+     * Message reçu sur le canal d'invalidation
+     * @param message "instance|raison"
+     */
+    public void onMessage(String message) {
+        if (message.startsWith(instance + SEPARATEUR)) return;
+
+        log.info("🧹 [CACHE] Invalidation reçue d'une autre instance : {}", message.substring(message.indexOf(SEPARATEUR) + 1));
+        drawHistoryStore.recharger();
+        pronosticCache.invaliderL1();
+    }
+
+    @EventListener
+    public void onNouveauTirage(NouveauTirageEvent event) {
+        invaliderPartout("NOUVEAU_TIRAGE " + event.getTirage().getDateTirage());
+    }
+}
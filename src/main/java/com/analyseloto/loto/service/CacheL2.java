@@ -0,0 +1,36 @@
+package com.analyseloto.loto.service;
+
+import java.time.Duration;
+
+/**
+ * Cache partagé entre les instances de l'application (L2) et canal d'invalidation.
+ * Toutes les opérations sont "au mieux" : une indisponibilité du L2 ne doit jamais faire échouer une requête.
+ */
+public interface CacheL2 {
+
+    /**
+     * @return valeur, null si absente (ou L2 indisponible)
+     */
+    Object lire(String cle);
+
+    /**
+     * Écrit la valeur si la clé est libre
+     * @return valeur finalement stockée : la nôtre, ou celle écrite avant nous par une autre instance
+     */
+    Object ecrireSiAbsent(String cle, Object valeur, Duration ttl);
+
+    /**
+     * Génération courante des données partagées (incluse dans les clés, incrémentée à chaque invalidation)
+     */
+    long generation();
+
+    /**
+     * Nouvelle génération : les clés de la génération précédente ne sont plus lues
+     */
+    void nouvelleGeneration();
+
+    /**
+     * Diffusion d'un message d'invalidation aux autres instances
+     */
+    void publier(String message);
+}
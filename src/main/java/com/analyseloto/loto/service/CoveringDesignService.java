@@ -0,0 +1,377 @@
+package com.analyseloto.loto.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * Moteur de systèmes réducteurs (covering designs) C(v, k, t, m) :
+ * un ensemble minimal de grilles de k numéros parmi v tel que, pour tout tirage contenant m numéros de la piscine,
+ * au moins une grille en contient t.
+ * Construction gloutonne, puis recuit simulé multi-départs en parallèle pour retirer des grilles dans le temps imparti.
+ * Les numéros et les grilles sont manipulés sous forme de masques int (v &lt;= 20).
+ */
+@Slf4j
+@Service
+public class CoveringDesignService {
+    public static final int V_MIN = 6;
+    public static final int V_MAX = 20;
+    public static final int K = 5;
+
+    private static final double TEMPERATURE_INITIALE = 1.0;
+    private static final double TEMPERATURE_MIN = 0.02;
+
+    // BINOMIAL[n][r] = C(n, r) pour n <= 20
+    private static final int[][] BINOMIAL = new int[V_MAX + 1][V_MAX + 1];
+
+    static {
+        for (int n = 0; n <= V_MAX; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int r = 1; r <= n; r++) BINOMIAL[n][r] = BINOMIAL[n - 1][r - 1] + BINOMIAL[n - 1][r];
+        }
+    }
+
+    // Clé : (v, k, t, m) -> grilles (index 1 à v)
+    private final Map<Long, int[][]> cache = new ConcurrentHashMap<>();
+
+    private final ForkJoinPool calculPool;
+
+    public CoveringDesignService(ForkJoinPool calculPool) {
+        this.calculPool = calculPool;
+    }
+
+    /**
+     * Système réducteur C(v, 5, t, m), mis en cache
+     * @param v taille de la piscine (6 à 20)
+     * @param t numéros garantis dans au moins une grille
+     * @param m numéros de la piscine présents dans le tirage
+     * @param budget temps de recherche (après la construction gloutonne)
+     * @return grilles, chacune sous forme de 5 index de 1 à v triés
+     */
+    public int[][] obtenir(int v, int t, int m, Duration budget) {
+        valider(v, K, t, m);
+        return cache.computeIfAbsent(cle(v, K, t, m), c -> calculer(v, K, t, m, budget));
+    }
+
+    /**
+     * Recherche (sans cache) d'un système réducteur : glouton + recuit simulé sur tous les cœurs
+     * @return grilles, chacune sous forme de k index de 1 à v triés
+     */
+    public int[][] calculer(int v, int k, int t, int m, Duration budget) {
+        valider(v, k, t, m);
+        long start = System.currentTimeMillis();
+        long echeance = start + Math.max(0, budget.toMillis());
+        Probleme probleme = new Probleme(v, k, t, m);
+
+        int nbRecherches = Math.max(1, Runtime.getRuntime().availableProcessors());
+        List<CompletableFuture<int[]>> recherches = new ArrayList<>(nbRecherches);
+        for (int i = 0; i < nbRecherches; i++) {
+            long graine = 0x5DEECE66DL * (i + 1) + v * 1_000_003L + t * 1009L + m;
+            recherches.add(CompletableFuture.supplyAsync(() -> probleme.rechercher(new SplittableRandom(graine), echeance), calculPool));
+        }
+
+        int[] meilleur = null;
+        for (CompletableFuture<int[]> r : recherches) {
+            int[] solution = r.join();
+            if (meilleur == null || solution.length < meilleur.length) meilleur = solution;
+        }
+
+        log.info("🧩 [WHEELING] Système C({},{},{},{}) : {} grilles trouvées en {} ms ({} recherches).",
+                v, k, t, m, meilleur.length, System.currentTimeMillis() - start, nbRecherches);
+        return versIndex(meilleur);
+    }
+
+    private static void valider(int v, int k, int t, int m) {
+        if (v < V_MIN || v > V_MAX) {
+            throw new IllegalArgumentException("Piscine de " + v + " numéros non supportée (" + V_MIN + " à " + V_MAX + ")");
+        }
+        if (k != K || t < 1 || t > m || m > K || m > v) {
+            throw new IllegalArgumentException("Garantie " + t + " si " + m + " impossible pour des grilles de " + k + " numéros");
+        }
+    }
+
+    private static long cle(int v, int k, int t, int m) {
+        return ((long) v << 24) | ((long) k << 16) | ((long) t << 8) | m;
+    }
+
+    /**
+     * Masques -> index 1 à v triés, grilles triées par ordre lexicographique
+     */
+    private static int[][] versIndex(int[] blocs) {
+        int[][] grilles = new int[blocs.length][];
+        for (int b = 0; b < blocs.length; b++) {
+            int[] g = new int[Integer.bitCount(blocs[b])];
+            int i = 0;
+            for (int reste = blocs[b]; reste != 0; reste &= reste - 1) g[i++] = Integer.numberOfTrailingZeros(reste) + 1;
+            grilles[b] = g;
+        }
+        Arrays.sort(grilles, Arrays::compare);
+        return grilles;
+    }
+
+    /**
+     * Rang colexicographique d'un sous-ensemble (masque sur v bits)
+     */
+    static int rang(int masque) {
+        int r = 0;
+        int i = 1;
+        for (int reste = masque; reste != 0; reste &= reste - 1) {
+            r += BINOMIAL[Integer.numberOfTrailingZeros(reste)][i++];
+        }
+        return r;
+    }
+
+    /**
+     * Une instance (v, k, t, m) : les "cibles" sont les m-sous-ensembles possibles du tirage dans la piscine.
+     * Une grille couvre une cible si leur intersection contient au moins t numéros.
+     */
+    static final class Probleme {
+        private final int k;
+        private final int t;
+        private final int m;
+        private final int plein;
+        private final int[] cibles; // cibles[rang] = masque
+
+        Probleme(int v, int k, int t, int m) {
+            this.k = k;
+            this.t = t;
+            this.m = m;
+            this.plein = (1 << v) - 1;
+            this.cibles = new int[BINOMIAL[v][m]];
+            enumerer(positions(plein), 0, m, 0, c -> cibles[rang(c)] = c);
+        }
+
+        /**
+         * Une recherche complète : glouton (égalités départagées au hasard), puis recuit simulé
+         * à taille décroissante tant qu'il reste du temps
+         * @return meilleure solution trouvée (masques)
+         */
+        int[] rechercher(SplittableRandom rnd, long echeance) {
+            Etat etat = new Etat();
+            glouton(etat, rnd);
+            int[] meilleur = etat.solution();
+
+            while (System.currentTimeMillis() < echeance && etat.taille > 1) {
+                // On retire la grille la moins utile, puis on cherche à recouvrir ce qu'elle couvrait seule
+                etat.retirer(etat.moinsUtile());
+                if (!recuit(etat, rnd, echeance)) break;
+                meilleur = etat.solution();
+            }
+            return meilleur;
+        }
+
+        private void glouton(Etat etat, SplittableRandom rnd) {
+            int[] meilleure = new int[1];
+            int[] meilleurGain = new int[1];
+            int[] egalites = new int[1];
+            for (int c = 0; c < cibles.length; c++) {
+                if (etat.couverture[c] > 0) continue;
+                // Parmi les grilles qui couvrent la première cible non couverte, celle qui couvre le plus de cibles non couvertes
+                meilleurGain[0] = -1;
+                voisins(cibles[c], k, g -> {
+                    int gain = etat.gain(g);
+                    if (gain > meilleurGain[0]) {
+                        meilleurGain[0] = gain;
+                        meilleure[0] = g;
+                        egalites[0] = 1;
+                    } else if (gain == meilleurGain[0] && rnd.nextInt(++egalites[0]) == 0) {
+                        meilleure[0] = g;
+                    }
+                });
+                etat.ajouter(meilleure[0]);
+            }
+        }
+
+        /**
+         * Recuit simulé à nombre de grilles fixe : minimise le nombre de cibles non couvertes.
+         * Voisinage de Nurmela-Östergård : on tire une cible non couverte et on déplace d'un numéro
+         * une des grilles qui en sont les plus proches pour qu'elle la couvre.
+         * @return true si toutes les cibles sont couvertes avant l'échéance
+         */
+        private boolean recuit(Etat etat, SplittableRandom rnd, long echeance) {
+            double temperature = TEMPERATURE_INITIALE;
+            int meilleurCout = etat.nonCouvertes;
+            long sansProgres = 0;
+
+            for (long iteration = 1; etat.nonCouvertes > 0; iteration++) {
+                if ((iteration & 0xFF) == 0 && System.currentTimeMillis() >= echeance) return false;
+
+                int cible = etat.cibleNonCouverte(rnd);
+                int i = etat.plusProche(cible, rnd);
+                int ancien = etat.blocs[i];
+                int nouveau = deplacementVers(ancien, cible, rnd);
+                if (nouveau == ancien) continue;
+
+                // Coût = cibles non couvertes : delta = ce que la grille couvrait seule - ce que la nouvelle rattrape
+                etat.retirer(i);
+                int delta = etat.dernierePerte - etat.gain(nouveau);
+                etat.ajouter((delta <= 0 || rnd.nextDouble() < Math.exp(-delta / temperature)) ? nouveau : ancien);
+
+                if (etat.nonCouvertes < meilleurCout) {
+                    meilleurCout = etat.nonCouvertes;
+                    sansProgres = 0;
+                } else if (++sansProgres > 50_000) {
+                    temperature = TEMPERATURE_INITIALE; // Réchauffe
+                    sansProgres = 0;
+                }
+                if (iteration % 1_000 == 0) temperature = Math.max(TEMPERATURE_MIN, temperature * 0.99);
+            }
+            return true;
+        }
+
+        /**
+         * Échange d'un numéro de la grille (hors cible) contre un numéro de la cible
+         */
+        private int deplacementVers(int bloc, int cible, SplittableRandom rnd) {
+            int sortant = choisirBit(bloc & ~cible, rnd);
+            int entrant = choisirBit(cible & ~bloc, rnd);
+            if (sortant == 0 || entrant == 0) return bloc;
+            return (bloc & ~sortant) | entrant;
+        }
+
+        private static int choisirBit(int masque, SplittableRandom rnd) {
+            int n = Integer.bitCount(masque);
+            if (n == 0) return 0;
+            int cible = rnd.nextInt(n);
+            int reste = masque;
+            for (int i = 0; i < cible; i++) reste &= reste - 1;
+            return Integer.lowestOneBit(reste);
+        }
+
+        /**
+         * Tous les sous-ensembles de la taille donnée dont l'intersection avec a contient au moins t éléments
+         * (cibles couvertes par une grille, ou grilles couvrant une cible)
+         */
+        void voisins(int a, int taille, IntConsumer action) {
+            int[] dedans = positions(a);
+            int[] dehors = positions(plein & ~a);
+            for (int j = Math.max(t, taille - dehors.length); j <= Math.min(dedans.length, taille); j++) {
+                int reste = taille - j;
+                enumerer(dedans, 0, j, 0, partie -> enumerer(dehors, 0, reste, partie, action));
+            }
+        }
+
+        private static void enumerer(int[] positions, int debut, int restant, int masque, IntConsumer action) {
+            if (restant == 0) {
+                action.accept(masque);
+                return;
+            }
+            for (int i = debut; i <= positions.length - restant; i++) {
+                enumerer(positions, i + 1, restant - 1, masque | (1 << positions[i]), action);
+            }
+        }
+
+        private static int[] positions(int masque) {
+            int[] p = new int[Integer.bitCount(masque)];
+            int i = 0;
+            for (int reste = masque; reste != 0; reste &= reste - 1) p[i++] = Integer.numberOfTrailingZeros(reste);
+            return p;
+        }
+
+        /**
+         * Solution en cours : grilles retenues et nombre de grilles couvrant chaque cible
+         */
+        final class Etat {
+            final int[] couverture = new int[cibles.length];
+            int[] blocs = new int[16];
+            int taille = 0;
+            int nonCouvertes = cibles.length;
+            int dernierePerte = 0; // Cibles découvertes par le dernier retrait
+
+            void ajouter(int bloc) {
+                if (taille == blocs.length) blocs = Arrays.copyOf(blocs, taille * 2);
+                blocs[taille++] = bloc;
+                voisins(bloc, m, c -> {
+                    if (couverture[rang(c)]++ == 0) nonCouvertes--;
+                });
+            }
+
+            void retirer(int index) {
+                int bloc = blocs[index];
+                blocs[index] = blocs[--taille];
+                int avant = nonCouvertes;
+                voisins(bloc, m, c -> {
+                    if (--couverture[rang(c)] == 0) nonCouvertes++;
+                });
+                dernierePerte = nonCouvertes - avant;
+            }
+
+            /**
+             * Nombre de cibles actuellement non couvertes que la grille couvrirait
+             */
+            int gain(int bloc) {
+                int[] n = {0};
+                voisins(bloc, m, c -> {
+                    if (couverture[rang(c)] == 0) n[0]++;
+                });
+                return n[0];
+            }
+
+            /**
+             * Grille couvrant seule le moins de cibles
+             */
+            int moinsUtile() {
+                int index = 0;
+                int min = Integer.MAX_VALUE;
+                for (int i = 0; i < taille; i++) {
+                    int[] n = {0};
+                    voisins(blocs[i], m, c -> {
+                        if (couverture[rang(c)] == 1) n[0]++;
+                    });
+                    if (n[0] < min) {
+                        min = n[0];
+                        index = i;
+                    }
+                }
+                return index;
+            }
+
+            /**
+             * Index d'une grille d'intersection maximale avec la cible (égalités départagées au hasard)
+             */
+            int plusProche(int cible, SplittableRandom rnd) {
+                int index = 0;
+                int max = -1;
+                int egalites = 0;
+                for (int i = 0; i < taille; i++) {
+                    int communs = Integer.bitCount(blocs[i] & cible);
+                    if (communs > max) {
+                        max = communs;
+                        index = i;
+                        egalites = 1;
+                    } else if (communs == max && rnd.nextInt(++egalites) == 0) {
+                        index = i;
+                    }
+                }
+                return index;
+            }
+
+            int cibleNonCouverte(SplittableRandom rnd) {
+                for (int essai = 0; essai < 64; essai++) {
+                    int c = rnd.nextInt(cibles.length);
+                    if (couverture[c] == 0) return cibles[c];
+                }
+                int debut = rnd.nextInt(cibles.length);
+                for (int i = 0; i < cibles.length; i++) {
+                    int c = (debut + i) % cibles.length;
+                    if (couverture[c] == 0) return cibles[c];
+                }
+                return cibles[debut];
+            }
+
+            int[] solution() {
+                return Arrays.copyOf(blocs, taille);
+            }
+        }
+    }
+}
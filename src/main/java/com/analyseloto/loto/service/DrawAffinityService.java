@@ -0,0 +1,138 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.util.LotoMetrics;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+
+/**
+ * Matrices d'affinité (nombre de sorties communes de chaque paire de numéros) sur les 350 derniers tirages.
+ * Une matrice par jour cible : les tirages du même jour de la semaine comptent 6 fois plus.
+ * Fenêtre glissante : à chaque nouveau tirage on ajoute ses 10 paires et on retire celles du tirage sorti de la fenêtre.
+ */
+@Service
+public class DrawAffinityService implements DrawHistoryListener {
+    public static final int FENETRE = 350;
+    public static final int POIDS_MEME_JOUR = 6;
+    // Paires (n1 < n2) de 1 à 49 rangées en ordre colexicographique
+    public static final int NB_PAIRES = 49 * 48 / 2;
+
+    private final DrawHistoryStore drawHistoryStore;
+
+    // Index 0 à 6 = DayOfWeek.getValue() - 1 (tableau remplacé, jamais modifié)
+    private volatile AffinityMatrix[] matrices = null;
+    private static final LotoMetrics.CacheCounter CACHE = LotoMetrics.cache("historique.affinites");
+
+    public DrawAffinityService(@Lazy DrawHistoryStore drawHistoryStore) {
+        this.drawHistoryStore = drawHistoryStore;
+    }
+
+    /**
+     * Matrice d'affinité pondérée pour un jour de tirage
+     * @param jourCible jour de la semaine favorisé
+     * @return matrice immuable
+     */
+    public AffinityMatrix matrice(DayOfWeek jourCible) {
+        AffinityMatrix[] courantes = this.matrices;
+        if (courantes == null) {
+            CACHE.miss();
+            drawHistoryStore.snapshot();
+            courantes = this.matrices;
+        } else {
+            CACHE.hit();
+        }
+        if (courantes == null) return new AffinityMatrix(jourCible, new int[NB_PAIRES], 0);
+        return courantes[jourCible.getValue() - 1];
+    }
+
+    @Override
+    public void onHistoriqueRecharge(DrawHistoryStore.Snapshot historique) {
+        int fin = historique.taille();
+        int debut = Math.max(0, fin - FENETRE);
+
+        int[][] poids = new int[7][NB_PAIRES];
+        for (int i = debut; i < fin; i++) {
+            for (int j = 0; j < 7; j++) appliquer(poids[j], historique, i, j, 1);
+        }
+
+        AffinityMatrix[] nouvelles = new AffinityMatrix[7];
+        for (int j = 0; j < 7; j++) nouvelles[j] = new AffinityMatrix(DayOfWeek.of(j + 1), poids[j], fin - debut);
+        this.matrices = nouvelles;
+    }
+
+    @Override
+    public void onTirageAjoute(DrawHistoryStore.Snapshot historique, int index) {
+        AffinityMatrix[] courantes = this.matrices;
+        if (courantes == null) {
+            onHistoriqueRecharge(historique);
+            return;
+        }
+        int sortant = index - FENETRE; // Tirage qui quitte la fenêtre (s'il existe)
+
+        AffinityMatrix[] nouvelles = new AffinityMatrix[7];
+        for (int j = 0; j < 7; j++) {
+            int[] poids = courantes[j].poids.clone();
+            appliquer(poids, historique, index, j, 1);
+            if (sortant >= 0) appliquer(poids, historique, sortant, j, -1);
+            nouvelles[j] = new AffinityMatrix(DayOfWeek.of(j + 1), poids, Math.min(historique.taille(), FENETRE));
+        }
+        this.matrices = nouvelles;
+    }
+
+    private static void appliquer(int[] poids, DrawHistoryStore.Snapshot historique, int i, int jourIndex, int signe) {
+        int increment = signe * ((historique.jourSemaine(i).getValue() - 1 == jourIndex) ? POIDS_MEME_JOUR : 1);
+        for (int k = 0; k < 5; k++) {
+            int n1 = historique.boule(i, k);
+            for (int m = k + 1; m < 5; m++) {
+                poids[rang(n1, historique.boule(i, m))] += increment;
+            }
+        }
+    }
+
+    /**
+     * Position d'une paire dans le tableau triangulaire
+     */
+    public static int rang(int n1, int n2) {
+        int a = Math.min(n1, n2) - 1;
+        int b = Math.max(n1, n2) - 1;
+        return b * (b - 1) / 2 + a;
+    }
+
+    /**
+     * Matrice symétrique stockée en triangle : NB_PAIRES entiers au lieu de Map&lt;Integer, Map&lt;Integer, Integer&gt;&gt;
+     */
+    public static final class AffinityMatrix {
+        private final DayOfWeek jourCible;
+        private final int[] poids;
+        private final int nombreTirages;
+
+        AffinityMatrix(DayOfWeek jourCible, int[] poids, int nombreTirages) {
+            this.jourCible = jourCible;
+            this.poids = poids;
+            this.nombreTirages = nombreTirages;
+        }
+
+        public DayOfWeek jourCible() {
+            return jourCible;
+        }
+
+        public int nombreTirages() {
+            return nombreTirages;
+        }
+
+        /**
+         * Poids de la paire (n1, n2), 0 si n1 == n2
+         */
+        public int poids(int n1, int n2) {
+            return (n1 == n2) ? 0 : poids[rang(n1, n2)];
+        }
+
+        /**
+         * Copie du triangle : index rang(n1, n2), parcouru par n2 croissant puis n1 croissant (n1 &lt; n2)
+         */
+        public int[] triangle() {
+            return poids.clone();
+        }
+    }
+}
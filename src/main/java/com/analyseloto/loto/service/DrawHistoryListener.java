@@ -0,0 +1,22 @@
+package com.analyseloto.loto.service;
+
+/**
+ * Point d'extension des structures dérivées de l'historique des tirages (stats, index, matrices...).
+ * Les implémentations sont appelées par le {@link DrawHistoryStore} sous son verrou d'écriture,
+ * AVANT la publication du nouveau snapshot aux lecteurs.
+ */
+public interface DrawHistoryListener {
+
+    /**
+     * Historique (re)chargé entièrement : la structure dérivée doit être reconstruite
+     * @param historique nouveau snapshot complet
+     */
+    void onHistoriqueRecharge(DrawHistoryStore.Snapshot historique);
+
+    /**
+     * Un tirage plus récent que tous les autres a été ajouté en fin d'historique
+     * @param historique nouveau snapshot (contient déjà le tirage)
+     * @param index position du tirage ajouté (toujours historique.taille() - 1)
+     */
+    void onTirageAjoute(DrawHistoryStore.Snapshot historique, int index);
+}
@@ -0,0 +1,244 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.entity.LotoTirage;
+import com.analyseloto.loto.event.NouveauTirageEvent;
+import com.analyseloto.loto.repository.LotoTirageRepository;
+import com.analyseloto.loto.util.GridMask;
+import com.analyseloto.loto.util.LotoMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Historique des tirages gardé en mémoire sous forme de colonnes primitives.
+ * Chargé une seule fois depuis la BDD, puis complété à chaque nouveau tirage.
+ * Les lecteurs travaillent sur un {@link Snapshot} immuable, sans jamais passer par Hibernate.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DrawHistoryStore {
+    // Repositories
+    private final LotoTirageRepository repository;
+    // Structures dérivées (stats, index, matrices...)
+    private final ObjectProvider<DrawHistoryListener> listeners;
+
+    private static final LotoMetrics.CacheCounter CACHE = LotoMetrics.cache("historique.snapshot");
+
+    private volatile Snapshot snapshot = null;
+
+    /**
+     * Renvoie l'historique courant (chargé à la demande si le démarrage n'est pas encore passé)
+     * @return snapshot immuable, trié du plus ancien au plus récent
+     */
+    public Snapshot snapshot() {
+        Snapshot s = this.snapshot;
+        if (s != null) {
+            CACHE.hit();
+            return s;
+        }
+        CACHE.miss();
+        return chargerSiNecessaire();
+    }
+
+    private synchronized Snapshot chargerSiNecessaire() {
+        return (this.snapshot != null) ? this.snapshot : recharger();
+    }
+
+    /**
+     * Rechargement complet depuis la BDD (démarrage, import CSV)
+     * @return nouveau snapshot publié
+     */
+    public synchronized Snapshot recharger() {
+        long start = System.currentTimeMillis();
+
+        // La projection est triée par date DESC : on la remet dans l'ordre chronologique
+        List<LotoTirageRepository.TirageMinimal> rows = repository.findAllOptimized();
+        int n = rows.size();
+        int[] jours = new int[n];
+        byte[][] boules = new byte[5][n];
+        byte[] chances = new byte[n];
+
+        for (int i = 0; i < n; i++) {
+            LotoTirageRepository.TirageMinimal t = rows.get(n - 1 - i);
+            jours[i] = (int) t.getDateTirage().toEpochDay();
+            boules[0][i] = (byte) t.getBoule1();
+            boules[1][i] = (byte) t.getBoule2();
+            boules[2][i] = (byte) t.getBoule3();
+            boules[3][i] = (byte) t.getBoule4();
+            boules[4][i] = (byte) t.getBoule5();
+            chances[i] = (byte) t.getNumeroChance();
+        }
+
+        Snapshot nouveau = new Snapshot(jours, boules, chances);
+        notifierRechargement(nouveau);
+        this.snapshot = nouveau;
+
+        log.info("📚 [HISTORIQUE] {} tirages chargés en mémoire en {} ms.", n, System.currentTimeMillis() - start);
+        return nouveau;
+    }
+
+    /**
+     * Ajout d'un tirage déjà enregistré en BDD
+     * @param tirage tirage
+     */
+    public synchronized void ajouter(LotoTirage tirage) {
+        Snapshot courant = snapshot();
+        int jour = (int) tirage.getDateTirage().toEpochDay();
+
+        int pos = courant.rechercher(jour);
+        if (pos >= 0) return; // Déjà présent (chargement postérieur à l'enregistrement)
+
+        int insertion = -pos - 1;
+        Snapshot nouveau = courant.avecTirage(insertion, jour,
+                new int[]{tirage.getBoule1(), tirage.getBoule2(), tirage.getBoule3(), tirage.getBoule4(), tirage.getBoule5()},
+                tirage.getNumeroChance());
+
+        if (insertion == courant.taille()) {
+            // Cas normal : nouveau tirage le plus récent, mise à jour incrémentale
+            listeners.orderedStream().forEach(l -> {
+                try {
+                    l.onTirageAjoute(nouveau, insertion);
+                } catch (Exception e) {
+                    log.error("❌ [HISTORIQUE] Erreur mise à jour incrémentale {}", l.getClass().getSimpleName(), e);
+                }
+            });
+        } else {
+            // Tirage ancien inséré au milieu : les index décalent, on reconstruit
+            notifierRechargement(nouveau);
+        }
+        this.snapshot = nouveau;
+        log.info("📚 [HISTORIQUE] Tirage du {} ajouté ({} tirages en mémoire).", tirage.getDateTirage(), nouveau.taille());
+    }
+
+    @EventListener
+    public void onNouveauTirage(NouveauTirageEvent event) {
+        ajouter(event.getTirage());
+    }
+
+    private void notifierRechargement(Snapshot nouveau) {
+        listeners.orderedStream().forEach(l -> {
+            try {
+                l.onHistoriqueRecharge(nouveau);
+            } catch (Exception e) {
+                log.error("❌ [HISTORIQUE] Erreur reconstruction {}", l.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    /**
+     * Vue immuable de l'historique : une colonne par attribut, index 0 = tirage le plus ancien.
+     * Les tableaux ne sont jamais modifiés après construction.
+     */
+    public static final class Snapshot {
+        private final int[] jours;       // LocalDate.toEpochDay()
+        private final byte[][] boules;   // 5 colonnes
+        private final byte[] chances;
+        private final long[] masques;    // GridMask de chaque tirage
+
+        /**
+         * @param jours dates en epoch-day, triées croissantes
+         * @param boules 5 colonnes de boules (même longueur que jours)
+         * @param chances numéros chance
+         */
+        public Snapshot(int[] jours, byte[][] boules, byte[] chances) {
+            this.jours = jours;
+            this.boules = boules;
+            this.chances = chances;
+            this.masques = new long[jours.length];
+            for (int i = 0; i < jours.length; i++) {
+                masques[i] = GridMask.of(boules[0][i], boules[1][i], boules[2][i], boules[3][i], boules[4][i]);
+            }
+        }
+
+        public static Snapshot vide() {
+            return new Snapshot(new int[0], new byte[5][0], new byte[0]);
+        }
+
+        public int taille() {
+            return jours.length;
+        }
+
+        public boolean isEmpty() {
+            return jours.length == 0;
+        }
+
+        public int jour(int i) {
+            return jours[i];
+        }
+
+        public LocalDate date(int i) {
+            return LocalDate.ofEpochDay(jours[i]);
+        }
+
+        public DayOfWeek jourSemaine(int i) {
+            return jourSemaineEpoch(jours[i]);
+        }
+
+        /**
+         * @param rang rang de la boule (0 à 4)
+         */
+        public int boule(int i, int rang) {
+            return boules[rang][i];
+        }
+
+        public int[] boules(int i) {
+            return new int[]{boules[0][i], boules[1][i], boules[2][i], boules[3][i], boules[4][i]};
+        }
+
+        /**
+         * Masque binaire des boules du tirage (voir GridMask)
+         */
+        public long masque(int i) {
+            return masques[i];
+        }
+
+        public int chance(int i) {
+            return chances[i];
+        }
+
+        /**
+         * Recherche dichotomique d'une date
+         * @param jour epoch-day
+         * @return index si trouvé, sinon (-(point d'insertion) - 1)
+         */
+        public int rechercher(int jour) {
+            return Arrays.binarySearch(jours, jour);
+        }
+
+        Snapshot avecTirage(int position, int jour, int[] nouvellesBoules, int chance) {
+            int n = jours.length;
+            int[] j = new int[n + 1];
+            byte[][] b = new byte[5][n + 1];
+            byte[] c = new byte[n + 1];
+
+            System.arraycopy(jours, 0, j, 0, position);
+            System.arraycopy(jours, position, j, position + 1, n - position);
+            j[position] = jour;
+            for (int r = 0; r < 5; r++) {
+                System.arraycopy(boules[r], 0, b[r], 0, position);
+                System.arraycopy(boules[r], position, b[r], position + 1, n - position);
+                b[r][position] = (byte) nouvellesBoules[r];
+            }
+            System.arraycopy(chances, 0, c, 0, position);
+            System.arraycopy(chances, position, c, position + 1, n - position);
+            c[position] = (byte) chance;
+
+            return new Snapshot(j, b, c);
+        }
+
+        /**
+         * Jour de la semaine d'un epoch-day (le 01/01/1970 était un jeudi)
+         */
+        public static DayOfWeek jourSemaineEpoch(int epochDay) {
+            return DayOfWeek.of(Math.floorMod(epochDay + 3, 7) + 1);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.StatPoint;
+import com.analyseloto.loto.dto.StatsReponse;
+import com.analyseloto.loto.util.LotoMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statistiques de fréquence / écart tenues à jour en continu, pour le global et pour chaque jour de la semaine.
+ * Les compteurs sont des tableaux primitifs mis à jour en O(1) à chaque tirage ;
+ * les lecteurs ne font qu'une lecture de référence sur un {@link StatsReponse} déjà construit.
+ */
+@Slf4j
+@Service
+public class DrawStatsService implements DrawHistoryListener {
+    // Filtre 0 = tous les tirages, 1 à 7 = DayOfWeek.getValue()
+    private static final int NB_FILTRES = 8;
+    private static final int GLOBAL = 0;
+    private static final int JAMAIS = Integer.MIN_VALUE;
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final DrawHistoryStore drawHistoryStore;
+
+    // Compteurs : modifiés uniquement sous le verrou du DrawHistoryStore
+    private final int[][] frequences = new int[NB_FILTRES][50];
+    private final int[][] derniereSortie = new int[NB_FILTRES][50];
+    private final int[][] frequencesChance = new int[NB_FILTRES][11];
+    private final int[][] derniereSortieChance = new int[NB_FILTRES][11];
+    private final int[] nombreTirages = new int[NB_FILTRES];
+    private final int[] premierJour = new int[NB_FILTRES];
+    private final int[] dernierJour = new int[NB_FILTRES];
+
+    // Réponses publiées (tableau remplacé, jamais modifié)
+    private volatile StatsReponse[] reponses = null;
+    private static final LotoMetrics.CacheCounter CACHE = LotoMetrics.cache("historique.stats");
+
+    public DrawStatsService(@Lazy DrawHistoryStore drawHistoryStore) {
+        this.drawHistoryStore = drawHistoryStore;
+    }
+
+    /**
+     * Statistiques déjà calculées
+     * @param jour jour de la semaine, ou null pour tous les tirages
+     * @return réponse immuable
+     */
+    public StatsReponse stats(DayOfWeek jour) {
+        StatsReponse[] courantes = this.reponses;
+        if (courantes == null) {
+            CACHE.miss();
+            drawHistoryStore.snapshot();
+            courantes = this.reponses;
+        } else {
+            CACHE.hit();
+        }
+        if (courantes == null) return reponseVide();
+        return courantes[(jour == null) ? GLOBAL : jour.getValue()];
+    }
+
+    @Override
+    public void onHistoriqueRecharge(DrawHistoryStore.Snapshot historique) {
+        for (int f = 0; f < NB_FILTRES; f++) {
+            Arrays.fill(frequences[f], 0);
+            Arrays.fill(derniereSortie[f], JAMAIS);
+            Arrays.fill(frequencesChance[f], 0);
+            Arrays.fill(derniereSortieChance[f], JAMAIS);
+            nombreTirages[f] = 0;
+        }
+        for (int i = 0; i < historique.taille(); i++) {
+            compter(historique, i);
+        }
+
+        StatsReponse[] nouvelles = new StatsReponse[NB_FILTRES];
+        for (int f = 0; f < NB_FILTRES; f++) nouvelles[f] = construire(f);
+        this.reponses = nouvelles;
+    }
+
+    @Override
+    public void onTirageAjoute(DrawHistoryStore.Snapshot historique, int index) {
+        if (this.reponses == null) {
+            onHistoriqueRecharge(historique);
+            return;
+        }
+        compter(historique, index);
+
+        // Seuls le global et le jour du tirage changent
+        int filtreJour = historique.jourSemaine(index).getValue();
+        StatsReponse[] nouvelles = this.reponses.clone();
+        nouvelles[GLOBAL] = construire(GLOBAL);
+        nouvelles[filtreJour] = construire(filtreJour);
+        this.reponses = nouvelles;
+    }
+
+    private void compter(DrawHistoryStore.Snapshot historique, int i) {
+        int jour = historique.jour(i);
+        int chance = historique.chance(i);
+        for (int f : new int[]{GLOBAL, historique.jourSemaine(i).getValue()}) {
+            if (nombreTirages[f] == 0) premierJour[f] = jour;
+            dernierJour[f] = jour;
+            nombreTirages[f]++;
+            for (int r = 0; r < 5; r++) {
+                int b = historique.boule(i, r);
+                frequences[f][b]++;
+                derniereSortie[f][b] = jour;
+            }
+            frequencesChance[f][chance]++;
+            derniereSortieChance[f][chance] = jour;
+        }
+    }
+
+    private StatsReponse construire(int f) {
+        if (nombreTirages[f] == 0) return reponseVide();
+
+        int maxJour = dernierJour[f];
+        List<StatPoint> points = new ArrayList<>(59);
+        for (int i = 1; i <= 49; i++) {
+            points.add(new StatPoint(i, frequences[f][i], ecart(maxJour, derniereSortie[f][i]), false));
+        }
+        for (int i = 1; i <= 10; i++) {
+            points.add(new StatPoint(i, frequencesChance[f][i], ecart(maxJour, derniereSortieChance[f][i]), true));
+        }
+        return new StatsReponse(List.copyOf(points), LocalDate.ofEpochDay(premierJour[f]).format(FMT),
+                LocalDate.ofEpochDay(maxJour).format(FMT), nombreTirages[f]);
+    }
+
+    private static int ecart(int maxJour, int derniereSortie) {
+        return (derniereSortie == JAMAIS) ? 999 : maxJour - derniereSortie;
+    }
+
+    private static StatsReponse reponseVide() {
+        return new StatsReponse(List.of(), "-", "-", 0);
+    }
+}
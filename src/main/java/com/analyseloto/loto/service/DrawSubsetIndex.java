@@ -0,0 +1,201 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.util.LotoMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+
+/**
+ * Index inversé : pour chaque sous-ensemble de 2, 3, 4 ou 5 numéros déjà sorti ensemble,
+ * la liste des tirages (index dans l'historique) qui le contiennent.
+ * Les sous-ensembles sont identifiés par leur rang colexicographique, ce qui permet un accès direct par tableau.
+ * Une simulation de grille devient C(5,2)+C(5,3)+C(5,4)+1 = 26 lectures au lieu d'un parcours de l'historique.
+ */
+@Slf4j
+@Service
+public class DrawSubsetIndex implements DrawHistoryListener {
+    public static final int K_MIN = 2;
+    public static final int K_MAX = 5;
+    private static final int NB_NUMEROS = 49;
+
+    // BINOMIAL[n][k] = C(n, k) pour n <= 49 et k <= 5
+    private static final int[][] BINOMIAL = new int[NB_NUMEROS + 1][K_MAX + 1];
+
+    static {
+        for (int n = 0; n <= NB_NUMEROS; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, K_MAX); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private final DrawHistoryStore drawHistoryStore;
+    private static final LotoMetrics.CacheCounter CACHE = LotoMetrics.cache("historique.index");
+
+    private volatile Index index = null;
+
+    public DrawSubsetIndex(@Lazy DrawHistoryStore drawHistoryStore) {
+        this.drawHistoryStore = drawHistoryStore;
+    }
+
+    /**
+     * Index courant (construit au premier chargement de l'historique)
+     * @return index immuable, cohérent avec son propre snapshot d'historique
+     */
+    public Index courant() {
+        Index i = this.index;
+        if (i != null) {
+            CACHE.hit();
+            return i;
+        }
+        CACHE.miss();
+        drawHistoryStore.snapshot();
+        i = this.index;
+        return (i != null) ? i : Index.construire(drawHistoryStore.snapshot());
+    }
+
+    @Override
+    public void onHistoriqueRecharge(DrawHistoryStore.Snapshot historique) {
+        long start = System.currentTimeMillis();
+        this.index = Index.construire(historique);
+        log.info("🗂️ [INDEX] Index des sous-ensembles construit sur {} tirages en {} ms.", historique.taille(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void onTirageAjoute(DrawHistoryStore.Snapshot historique, int indexTirage) {
+        Index courant = this.index;
+        this.index = (courant == null) ? Index.construire(historique) : courant.avecTirage(historique, indexTirage);
+    }
+
+    /**
+     * Rang colexicographique d'un sous-ensemble trié de numéros (1 à 49)
+     * @param numeros numéros triés par ordre croissant
+     * @param k nombre de numéros à prendre en compte
+     * @return rang dans [0, C(49, k)[
+     */
+    public static int rangColex(int[] numeros, int k) {
+        int rang = 0;
+        for (int j = 0; j < k; j++) {
+            rang += BINOMIAL[numeros[j] - 1][j + 1];
+        }
+        return rang;
+    }
+
+    public static int nombreSousEnsembles(int k) {
+        return BINOMIAL[NB_NUMEROS][k];
+    }
+
+    /**
+     * Version immuable de l'index. Les lignes (int[]) ne sont jamais modifiées :
+     * un ajout remplace les lignes concernées par des copies et partage toutes les autres.
+     */
+    public static final class Index {
+        private static final int[] VIDE = new int[0];
+
+        private final DrawHistoryStore.Snapshot historique;
+        // postings[k][rang] = index des tirages contenant le sous-ensemble (ordre chronologique), null si jamais sorti
+        private final int[][][] postings;
+
+        private Index(DrawHistoryStore.Snapshot historique, int[][][] postings) {
+            this.historique = historique;
+            this.postings = postings;
+        }
+
+        /**
+         * Construction complète en deux passes (comptage puis remplissage)
+         * @param historique historique des tirages
+         * @return index
+         */
+        public static Index construire(DrawHistoryStore.Snapshot historique) {
+            int n = historique.taille();
+            int[][] compteurs = new int[K_MAX + 1][];
+            for (int k = K_MIN; k <= K_MAX; k++) compteurs[k] = new int[nombreSousEnsembles(k)];
+
+            int[] tmp = new int[K_MAX];
+            for (int i = 0; i < n; i++) {
+                int[] boules = boulesTriees(historique, i);
+                for (int sous = 0; sous < 32; sous++) {
+                    int k = Integer.bitCount(sous);
+                    if (k < K_MIN) continue;
+                    compteurs[k][rangColex(extraire(boules, sous, tmp), k)]++;
+                }
+            }
+
+            int[][][] postings = new int[K_MAX + 1][][];
+            for (int k = K_MIN; k <= K_MAX; k++) {
+                postings[k] = new int[compteurs[k].length][];
+                for (int r = 0; r < compteurs[k].length; r++) {
+                    if (compteurs[k][r] > 0) postings[k][r] = new int[compteurs[k][r]];
+                    compteurs[k][r] = 0; // Réutilisé comme curseur de remplissage
+                }
+            }
+
+            for (int i = 0; i < n; i++) {
+                int[] boules = boulesTriees(historique, i);
+                for (int sous = 0; sous < 32; sous++) {
+                    int k = Integer.bitCount(sous);
+                    if (k < K_MIN) continue;
+                    int rang = rangColex(extraire(boules, sous, tmp), k);
+                    postings[k][rang][compteurs[k][rang]++] = i;
+                }
+            }
+            return new Index(historique, postings);
+        }
+
+        /**
+         * Ajout incrémental du dernier tirage de l'historique (26 lignes mises à jour)
+         */
+        Index avecTirage(DrawHistoryStore.Snapshot nouvelHistorique, int indexTirage) {
+            int[][][] copie = new int[K_MAX + 1][][];
+            for (int k = K_MIN; k <= K_MAX; k++) copie[k] = postings[k].clone();
+
+            int[] boules = boulesTriees(nouvelHistorique, indexTirage);
+            int[] tmp = new int[K_MAX];
+            for (int sous = 0; sous < 32; sous++) {
+                int k = Integer.bitCount(sous);
+                if (k < K_MIN) continue;
+                int rang = rangColex(extraire(boules, sous, tmp), k);
+                int[] ligne = copie[k][rang];
+                int[] nouvelle = (ligne == null) ? new int[1] : Arrays.copyOf(ligne, ligne.length + 1);
+                nouvelle[nouvelle.length - 1] = indexTirage;
+                copie[k][rang] = nouvelle;
+            }
+            return new Index(nouvelHistorique, copie);
+        }
+
+        /**
+         * Historique sur lequel l'index a été construit
+         */
+        public DrawHistoryStore.Snapshot historique() {
+            return historique;
+        }
+
+        /**
+         * Tirages contenant le sous-ensemble donné
+         * @param numeros numéros triés par ordre croissant
+         * @param k taille du sous-ensemble (2 à 5)
+         * @return index des tirages par ordre chronologique (tableau partagé, ne pas modifier)
+         */
+        public int[] tirages(int[] numeros, int k) {
+            int[] ligne = postings[k][rangColex(numeros, k)];
+            return (ligne == null) ? VIDE : ligne;
+        }
+
+        private static int[] boulesTriees(DrawHistoryStore.Snapshot historique, int i) {
+            int[] boules = historique.boules(i);
+            Arrays.sort(boules);
+            return boules;
+        }
+
+        private static int[] extraire(int[] boules, int sousMasque, int[] tmp) {
+            int j = 0;
+            for (int b = 0; b < K_MAX; b++) {
+                if ((sousMasque & (1 << b)) != 0) tmp[j++] = boules[b];
+            }
+            return tmp;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.entity.EmailOutbox;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Expéditeur de la file d'envoi : chaque lot part sur une seule session SMTP (JavaMailSender.send(MimeMessage...)),
+ * le débit est plafonné à la limite du fournisseur. Aucune transaction n'est ouverte pendant l'envoi.
+ */
+@Slf4j
+@Service
+public class EmailOutboxSender {
+    private static final String EXPEDITEUR = "Loto Master AI <no-reply@lotomaster.com>";
+
+    private final EmailOutboxService emailOutboxService;
+    private final JavaMailSender mailSender;
+    private final ThreadPoolTaskScheduler maintenanceScheduler;
+
+    @Value("${loto.mail.outbox.intervalle-ms:5000}")
+    private long intervalleMs;
+
+    @Value("${loto.mail.outbox.taille-lot:20}")
+    private int tailleLot;
+
+    @Value("${loto.mail.outbox.debit-par-minute:60}")
+    private int debitParMinute;
+
+    private ScheduledFuture<?> expedition;
+    // Arrêt demandé : le lot en cours part, les suivants attendent le prochain démarrage
+    private volatile boolean arret;
+
+    public EmailOutboxSender(EmailOutboxService emailOutboxService, JavaMailSender mailSender,
+                             ThreadPoolTaskScheduler maintenanceScheduler) {
+        this.emailOutboxService = emailOutboxService;
+        this.mailSender = mailSender;
+        this.maintenanceScheduler = maintenanceScheduler;
+    }
+
+    // Démarrage une fois le contexte prêt (pas d'accès BDD depuis ce thread pendant l'initialisation)
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        expedition = maintenanceScheduler.scheduleWithFixedDelay(this::vider,
+                Instant.now().plusMillis(intervalleMs), Duration.ofMillis(intervalleMs));
+    }
+
+    // Fermeture du contexte, avant l'arrêt des pools : aucun lot interrompu en pleine session SMTP (il serait renvoyé)
+    @EventListener(ContextClosedEvent.class)
+    public void arreter() {
+        arret = true;
+        if (expedition != null) expedition.cancel(false);
+    }
+
+    /**
+     * Envoi des lots disponibles jusqu'à épuisement de la file ou demande d'arrêt (planificateur des tâches de fond)
+     */
+    void vider() {
+        try {
+            // Durée minimale d'un lot pour rester sous le débit autorisé
+            long dureeMinParMail = 60_000L / Math.max(1, debitParMinute);
+            List<EmailOutbox> lot;
+            while (!arret && !(lot = emailOutboxService.reserver(tailleLot)).isEmpty()) {
+                long debut = System.currentTimeMillis();
+                envoyer(lot);
+                long attente = debut + lot.size() * dureeMinParMail - System.currentTimeMillis();
+                if (attente > 0 && !arret) Thread.sleep(attente);
+            }
+            // Relevé de la file pour les jauges (mails restants, mails abandonnés)
+            emailOutboxService.etatFile();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Les mails réservés repasseront à l'expiration de la réservation
+            log.error("❌ [OUTBOX] Erreur lors du vidage de la file : {}", e.getMessage());
+        }
+    }
+
+    private void envoyer(List<EmailOutbox> lot) {
+        Map<MimeMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        for (EmailOutbox mail : lot) {
+            try {
+                messages.put(construire(mail), mail);
+            } catch (MessagingException e) {
+                // Adresse ou contenu invalide : inutile de réessayer
+                emailOutboxService.marquerEchec(mail, e, true);
+            }
+        }
+        if (messages.isEmpty()) return;
+
+        List<EmailOutbox> envoyes = new ArrayList<>(messages.values());
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Seuls les messages listés ont échoué, les autres sont partis sur la même session
+            for (Map.Entry<Object, Exception> echec : e.getFailedMessages().entrySet()) {
+                EmailOutbox mail = messages.get(echec.getKey());
+                if (mail == null) continue;
+                envoyes.remove(mail);
+                emailOutboxService.marquerEchec(mail, echec.getValue(), estDefinitif(echec.getValue()));
+            }
+            if (e.getFailedMessages().isEmpty()) {
+                envoyes.forEach(mail -> emailOutboxService.marquerEchec(mail, e, false));
+                envoyes.clear();
+            }
+        } catch (MailAuthenticationException e) {
+            log.error("🔐 [OUTBOX] Authentification SMTP refusée : {}", e.getMessage());
+            envoyes.forEach(mail -> emailOutboxService.marquerEchec(mail, e, false));
+            envoyes.clear();
+        } catch (MailException e) {
+            envoyes.forEach(mail -> emailOutboxService.marquerEchec(mail, e, false));
+            envoyes.clear();
+        }
+
+        if (!envoyes.isEmpty()) {
+            emailOutboxService.marquerEnvoyes(envoyes);
+            log.info("📤 [OUTBOX] {} mail(s) envoyé(s) sur une session SMTP ({} en échec).", envoyes.size(), lot.size() - envoyes.size());
+        }
+    }
+
+    private MimeMessage construire(EmailOutbox mail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(EXPEDITEUR);
+        helper.setTo(mail.getDestinataire());
+        helper.setSubject(mail.getObjet());
+        helper.setText(mail.getContenu(), true);
+        return message;
+    }
+
+    /**
+     * Refus d'adresse par le serveur (5xx sur RCPT TO) : le mail ne passera jamais
+     */
+    private static boolean estDefinitif(Exception e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SendFailedException sfe && sfe.getInvalidAddresses() != null && sfe.getInvalidAddresses().length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,161 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.entity.EmailOutbox;
+import com.analyseloto.loto.enums.OutboxStatus;
+import com.analyseloto.loto.repository.EmailOutboxBulkRepository;
+import com.analyseloto.loto.repository.EmailOutboxRepository;
+import com.analyseloto.loto.util.LotoMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File d'envoi des emails (outbox) : les appelants enregistrent le mail dans leur transaction,
+ * l'expéditeur (EmailOutboxSender) le réserve, l'envoie hors transaction puis enregistre le résultat.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+    // Durée de réservation d'un lot : au-delà, un expéditeur arrêté en cours d'envoi rend ses mails aux autres
+    private static final Duration RESERVATION = Duration.ofMinutes(10);
+    private static final Duration DELAI_MAX = Duration.ofHours(6);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailOutboxBulkRepository emailOutboxBulkRepository;
+
+    @Value("${loto.mail.outbox.tentatives-max:6}")
+    private int tentativesMax;
+
+    @Value("${loto.mail.outbox.delai-initial-ms:60000}")
+    private long delaiInitialMs;
+
+    // Dernier état relevé de la file (jauges), rafraîchi par l'expéditeur après chaque vidage
+    private final AtomicLong enAttente = new AtomicLong();
+    private final AtomicLong echecsDefinitifs = new AtomicLong();
+
+    @PostConstruct
+    void enregistrerJauges() {
+        LotoMetrics.fileEnvoi("en_attente", enAttente);
+        LotoMetrics.fileEnvoi("echec_definitif", echecsDefinitifs);
+    }
+
+    /**
+     * Mise en file d'un mail (rejoint la transaction de l'appelant s'il y en a une)
+     * @param to destinataire
+     * @param subject objet
+     * @param htmlBody contenu
+     */
+    @Transactional
+    public void enfiler(String to, String subject, String htmlBody) {
+        emailOutboxRepository.save(new EmailOutbox(to, subject, htmlBody));
+    }
+
+    /**
+     * Mise en file d'un lot de mails en une écriture par paquets (rejoint la transaction de l'appelant s'il y en a une)
+     * @param mails mails à envoyer
+     */
+    @Transactional
+    public void enfilerLot(List<EmailOutbox> mails) {
+        if (!mails.isEmpty()) emailOutboxBulkRepository.enregistrer(mails);
+    }
+
+    /**
+     * Réservation du lot suivant : les mails sont repoussés de la durée de réservation pour qu'aucune
+     * autre instance ne les reprenne pendant l'envoi
+     * @param taille taille maximale du lot
+     * @return mails à envoyer
+     */
+    @Transactional
+    public List<EmailOutbox> reserver(int taille) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<EmailOutbox> lot = emailOutboxRepository.findAEnvoyer(OutboxStatus.EN_ATTENTE, maintenant, PageRequest.of(0, taille));
+        lot.forEach(e -> e.setProchainEssai(maintenant.plus(RESERVATION)));
+        return emailOutboxRepository.saveAll(lot);
+    }
+
+    /**
+     * Enregistrement des mails remis au serveur SMTP
+     * @param envoyes mails envoyés
+     */
+    @Transactional
+    public void marquerEnvoyes(List<EmailOutbox> envoyes) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        for (EmailOutbox e : envoyes) {
+            e.setStatut(OutboxStatus.ENVOYE);
+            e.setDateEnvoi(maintenant);
+            e.setTentatives(e.getTentatives() + 1);
+            e.setDerniereErreur(null);
+        }
+        emailOutboxRepository.saveAll(envoyes);
+    }
+
+    /**
+     * Enregistrement d'un échec : nouvel essai avec délai exponentiel, ou mise à l'écart (échec définitif,
+     * ou trop de tentatives)
+     * @param echec mail en échec
+     * @param erreur cause
+     * @param definitif erreur non récupérable (adresse refusée, message invalide)
+     */
+    @Transactional
+    public void marquerEchec(EmailOutbox echec, Exception erreur, boolean definitif) {
+        int tentatives = echec.getTentatives() + 1;
+        echec.setTentatives(tentatives);
+        String message = String.valueOf(erreur.getMessage());
+        echec.setDerniereErreur(message.length() > 990 ? message.substring(0, 990) + "..." : message);
+
+        if (definitif || tentatives >= tentativesMax) {
+            echec.setStatut(OutboxStatus.ECHEC_DEFINITIF);
+            log.error("☠️ [OUTBOX] Mail #{} pour {} abandonné après {} tentative(s) : {}",
+                    echec.getId(), echec.getDestinataire(), tentatives, message);
+        } else {
+            long delaiMs = Math.min(delaiInitialMs << (tentatives - 1), DELAI_MAX.toMillis());
+            echec.setProchainEssai(LocalDateTime.now().plus(Duration.ofMillis(delaiMs)));
+            log.warn("⏳ [OUTBOX] Mail #{} pour {} en échec (tentative {}), nouvel essai dans {} s : {}",
+                    echec.getId(), echec.getDestinataire(), tentatives, delaiMs / 1000, message);
+        }
+        emailOutboxRepository.save(echec);
+    }
+
+    /**
+     * État de la file : mails pas encore remis au serveur SMTP, et mails abandonnés
+     * @return nombre de mails en attente et en échec définitif
+     */
+    public EtatFile etatFile() {
+        EtatFile etat = new EtatFile(emailOutboxRepository.countByStatut(OutboxStatus.EN_ATTENTE),
+                emailOutboxRepository.countByStatut(OutboxStatus.ECHEC_DEFINITIF));
+        enAttente.set(etat.getEnAttente());
+        echecsDefinitifs.set(etat.getEchecsDefinitifs());
+        return etat;
+    }
+
+    /**
+     * Purge des mails envoyés depuis plus de N jours (les échecs définitifs sont conservés pour analyse)
+     * @param jours ancienneté
+     * @return nombre de mails supprimés
+     */
+    public int purgerEnvoyes(int jours) {
+        return emailOutboxRepository.supprimerEnvoyesAvant(LocalDateTime.now().minusDays(jours));
+    }
+
+    @Getter
+    public static final class EtatFile {
+        private final long enAttente;
+        private final long echecsDefinitifs;
+
+        public EtatFile(long enAttente, long echecsDefinitifs) {
+            this.enAttente = enAttente;
+            this.echecsDefinitifs = echecsDefinitifs;
+        }
+    }
+}
@@ -4,14 +4,11 @@ import com.analyseloto.loto.dto.PronosticResultDto;
 import com.analyseloto.loto.entity.LotoTirage;
 import com.analyseloto.loto.entity.User;
 import com.analyseloto.loto.entity.UserBet;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -23,33 +20,20 @@ import java.util.stream.Collectors;
 @Slf4j
 @RequiredArgsConstructor
 public class EmailService {
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
     /**
-     * Envoi email (format HTML)
+     * Envoi email (format HTML) : mise en file d'envoi, l'expédition SMTP se fait en tâche de fond
      * @param to destinataire
      * @param subject objet
      * @param htmlBody contenu
      */
     public void sendHtmlEmail(String to, String subject, String htmlBody) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom("Loto Master AI <no-reply@lotomaster.com>");
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true);
-
-            mailSender.send(message);
-            log.info("✅ Email envoyé avec succès à {}", to);
-        } catch (MessagingException e) {
-            log.error("❌ Impossible d'envoyer l'email : {}", e.getMessage());
-            throw new RuntimeException("Erreur envoi mail", e);
-        }
+        emailOutboxService.enfiler(to, subject, htmlBody);
+        log.debug("📥 Email pour {} mis en file d'envoi", to);
     }
 
     /**
@@ -288,6 +272,17 @@ public class EmailService {
      * @return contenu
      */
     public String buildPersonalizedHtmlBody(List<PronosticResultDto> pronos, LocalDate date, String prenom) {
+        return buildPronosticsTemplate(pronos, date).personnaliser(prenom);
+    }
+
+    /**
+     * Construction du gabarit commun du mail des pronostics : rendu une seule fois pour tous les destinataires,
+     * seul le prénom est substitué à l'envoi
+     * @param pronos liste pronos
+     * @param date date jeu
+     * @return gabarit
+     */
+    public GabaritMail buildPronosticsTemplate(List<PronosticResultDto> pronos, LocalDate date) {
         StringBuilder sb = new StringBuilder();
 
         // Formatage date type : "Lundi 29 Décembre"
@@ -304,7 +299,7 @@ public class EmailService {
 
         // Contenu
         sb.append("<div style='padding: 20px;'>");
-        sb.append("<p style='font-size: 16px;'>Bonjour <strong>").append(prenom).append("</strong> 👋,</p>");
+        sb.append("<p style='font-size: 16px;'>Bonjour <strong>").append(GabaritMail.PRENOM).append("</strong> 👋,</p>");
         sb.append("<p>Les astres et les statistiques se sont alignés pour vous. Voici vos 5 grilles optimisées pour le tirage du <strong>")
                 .append(dateJolie)
                 .append("</strong>.</p>");
@@ -341,7 +336,29 @@ public class EmailService {
         sb.append("</p>");
 
         sb.append("</div></div></body></html>");
-        return sb.toString();
+        return new GabaritMail(sb.toString());
+    }
+
+    /**
+     * HTML rendu une fois, découpé autour de l'emplacement du prénom (échappé à la substitution)
+     */
+    public static final class GabaritMail {
+        static final String PRENOM = "{{PRENOM}}";
+
+        private final String avant;
+        private final String apres;
+
+        GabaritMail(String html) {
+            int i = html.indexOf(PRENOM);
+            this.avant = html.substring(0, i);
+            this.apres = html.substring(i + PRENOM.length());
+        }
+
+        public String personnaliser(String prenom) {
+            String valeur = (prenom == null) ? "" : HtmlUtils.htmlEscape(prenom);
+            return new StringBuilder(avant.length() + valeur.length() + apres.length())
+                    .append(avant).append(valeur).append(apres).toString();
+        }
     }
 
     /**
@@ -1,13 +1,13 @@
 package com.analyseloto.loto.service;
 
+import com.analyseloto.loto.config.ExecutorConfig;
+import com.analyseloto.loto.dto.ReglementReportDto;
 import com.analyseloto.loto.entity.LotoTirage;
 import com.analyseloto.loto.entity.User;
 import com.analyseloto.loto.entity.UserBet;
-import com.analyseloto.loto.entity.UserBilan;
 import com.analyseloto.loto.event.NouveauTirageEvent;
 import com.analyseloto.loto.repository.UserBetRepository;
-import com.analyseloto.loto.repository.UserBilanRepository;
-import jakarta.transaction.Transactional;
+import com.analyseloto.loto.repository.UserBilanBulkRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -15,6 +15,7 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -25,30 +26,25 @@ import java.util.stream.Collectors;
 public class GainCalculatorService {
     // Repositories
     private final UserBetRepository userBetRepository;
-    private final UserBilanRepository userBilanRepository;
+    private final UserBilanBulkRepository userBilanBulkRepository;
     // Services
-    private final LotoService lotoService;
+    private final BetSettlementService betSettlementService;
     private final EmailService emailService;
 
     /**
      * Evenement déclenché lors de la récupération du tirage officiel pour mettre à jour les gains des utilisateurs
      * @param event evenement tirage
      */
-    @Async
+    @Async(ExecutorConfig.REGLEMENT)
     @EventListener
-    @Transactional
     public void onNouveauTirage(NouveauTirageEvent event) {
         LotoTirage tirage = event.getTirage();
         LocalDate dateTirage = tirage.getDateTirage();
 
-        // 1. CALCUL DES GAINS
-        List<UserBet> parisATraiter = userBetRepository.findByDateJeuAndGainIsNull(dateTirage);
-        if (!parisATraiter.isEmpty()) {
-            for (UserBet bet : parisATraiter) {
-                bet.setGain(lotoService.calculerGainSimule(bet, tirage));
-                userBetRepository.save(bet);
-            }
-            log.info("✅ {} paris mis à jour.", parisATraiter.size());
+        // 1. CALCUL DES GAINS (règlement ensembliste, écrit par paquets JDBC)
+        ReglementReportDto reglement = betSettlementService.regler(tirage);
+        if (reglement.getGrillesReglees() > 0) {
+            log.info("✅ {} paris mis à jour.", reglement.getGrillesReglees());
         }
 
         // 2. RÉCUPÉRATION GLOBALE POUR EMAILS ET BILANS
@@ -56,13 +52,11 @@ public class GainCalculatorService {
         Map<User, List<UserBet>> parisParUtilisateur = tousLesParisDuJour.stream()
                 .collect(Collectors.groupingBy(UserBet::getUser));
 
-        parisParUtilisateur.forEach((user, bets) -> {
-            // A. Envoi Email
-            envoyerNotificationEmail(user, tirage, bets);
+        // A. Envoi Email
+        parisParUtilisateur.forEach((user, bets) -> envoyerNotificationEmail(user, tirage, bets));
 
-            // B. Mise à jour du Bilan (LA CORRECTION EST ICI)
-            mettreAJourBilanFinancier(user, dateTirage, bets);
-        });
+        // B. Mise à jour des bilans (une lecture, une écriture par paquets pour tous les joueurs)
+        mettreAJourBilansFinanciers(dateTirage, parisParUtilisateur);
 
         log.info("📈 Traitement terminé pour {} utilisateurs.", parisParUtilisateur.size());
     }
@@ -77,43 +71,32 @@ public class GainCalculatorService {
         }
     }
 
-    private void mettreAJourBilanFinancier(User user, LocalDate dateTirage, List<UserBet> parisDuJour) {
-        // 1. On récupère le cumul historique jusqu'au tirage PRÉCÉDENT
-        UserBilan precedent = userBilanRepository
-                .findTopByUserAndDateBilanBeforeOrderByDateBilanDesc(user, dateTirage)
-                .orElse(null);
-
-        // 2. On cherche si un bilan existe déjà pour AUJOURD'HUI (cas du re-run)
-        UserBilan actuel = userBilanRepository.findByUserAndDateBilan(user, dateTirage)
-                .orElse(new UserBilan(user, dateTirage));
-
-        // 3. Calcul du delta (uniquement ce qui s'est passé sur ce tirage)
-        double gainsAujourdhui = parisDuJour.stream()
-                .filter(b -> b.getGain() != null)
-                .mapToDouble(UserBet::getGain).sum();
-        double depenseAujourdhui = parisDuJour.stream()
-                .mapToDouble(UserBet::getMise).sum();
-        int gagnantsAujourdhui = (int) parisDuJour.stream()
-                .filter(b -> b.getGain() != null && b.getGain() > 0).count();
-
-        // 4. Initialisation des cumuls (Base précédente ou 0)
-        double baseDepense = (precedent != null) ? precedent.getTotalDepense() : 0.0;
-        double baseGains = (precedent != null) ? precedent.getTotalGains() : 0.0;
-        int baseNbGrilles = (precedent != null) ? precedent.getNbGrillesJouees() : 0;
-        int baseNbGagnantes = (precedent != null) ? precedent.getNbGrillesGagnantes() : 0;
-
-        // 5. Mise à jour du bilan actuel avec le cumul
-        actuel.setTotalDepense(baseDepense + depenseAujourdhui);
-        actuel.setTotalGains(baseGains + gainsAujourdhui);
-        actuel.setSolde(actuel.getTotalGains() - actuel.getTotalDepense());
-        actuel.setNbGrillesJouees(baseNbGrilles + parisDuJour.size());
-        actuel.setNbGrillesGagnantes(baseNbGagnantes + gagnantsAujourdhui);
-
-        // Calcul du ROI global
-        if (actuel.getTotalDepense() > 0) {
-            actuel.setRoi((actuel.getSolde() / actuel.getTotalDepense()) * 100);
-        }
+    /**
+     * Bilans cumulés de tous les joueurs du tirage : cumul précédent (une requête) + résultats du jour, écrits par paquets
+     * @param dateTirage date du tirage
+     * @param parisParUtilisateur grilles du jour par joueur
+     */
+    private void mettreAJourBilansFinanciers(LocalDate dateTirage, Map<User, List<UserBet>> parisParUtilisateur) {
+        Map<Long, UserBilanBulkRepository.Cumul> precedents = userBilanBulkRepository.chargerPrecedents(dateTirage);
+
+        List<UserBilanBulkRepository.Cumul> bilans = new ArrayList<>(parisParUtilisateur.size());
+        parisParUtilisateur.forEach((user, parisDuJour) -> {
+            double gainsAujourdhui = 0.0;
+            double depenseAujourdhui = 0.0;
+            int gagnantsAujourdhui = 0;
+            for (UserBet b : parisDuJour) {
+                depenseAujourdhui += b.getMise();
+                if (b.getGain() != null) {
+                    gainsAujourdhui += b.getGain();
+                    if (b.getGain() > 0) gagnantsAujourdhui++;
+                }
+            }
+            // Base : cumul jusqu'au tirage PRÉCÉDENT (ou 0), jamais le bilan du jour en cas de re-run
+            UserBilanBulkRepository.Cumul base = precedents.getOrDefault(user.getId(),
+                    new UserBilanBulkRepository.Cumul(user.getId(), 0.0, 0.0, 0, 0));
+            bilans.add(base.plus(depenseAujourdhui, gainsAujourdhui, parisDuJour.size(), gagnantsAujourdhui));
+        });
 
-        userBilanRepository.save(actuel);
+        userBilanBulkRepository.enregistrer(dateTirage, bilans);
     }
 }
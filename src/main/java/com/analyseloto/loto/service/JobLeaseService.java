@@ -0,0 +1,176 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.entity.JobLease;
+import com.analyseloto.loto.repository.JobLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Exécution exclusive des jobs entre instances : chaque job réserve sa ligne de bail (SELECT ... FOR UPDATE SKIP LOCKED),
+ * la prolonge par un battement tant qu'il tourne, puis la libère. Une instance arrêtée en cours de job rend la main
+ * à l'expiration du bail.
+ */
+@Slf4j
+@Service
+public class JobLeaseService {
+    private final JobLeaseRepository jobLeaseRepository;
+    private final TransactionTemplate nouvelleTransaction;
+    private final Duration duree;
+    private final long battementMs;
+    // Planificateur des tâches de fond : le battement ne doit pas attendre la fin des jobs du planificateur des crons
+    private final ThreadPoolTaskScheduler maintenanceScheduler;
+    // Identifiant de l'instance (pid@hôte, le nom d'hôte est l'id du conteneur sous Docker)
+    private final String instance = ManagementFactory.getRuntimeMXBean().getName();
+    // Baux détenus par cette instance, prolongés par le battement
+    private final Set<String> detenus = ConcurrentHashMap.newKeySet();
+
+    public JobLeaseService(JobLeaseRepository jobLeaseRepository, PlatformTransactionManager transactionManager,
+                           @Value("${loto.jobs.bail.duree-ms:120000}") long dureeMs,
+                           @Value("${loto.jobs.bail.battement-ms:30000}") long battementMs,
+                           ThreadPoolTaskScheduler maintenanceScheduler) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.duree = Duration.ofMillis(dureeMs);
+        this.battementMs = battementMs;
+        this.maintenanceScheduler = maintenanceScheduler;
+        // Réservation et libération validées immédiatement, indépendamment d'une éventuelle transaction de l'appelant
+        this.nouvelleTransaction = new TransactionTemplate(transactionManager);
+        this.nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void demarrer() {
+        maintenanceScheduler.scheduleWithFixedDelay(this::prolongerDetenus,
+                Instant.now().plusMillis(battementMs), Duration.ofMillis(battementMs));
+    }
+
+    /**
+     * Exécution d'un job si aucune instance ne le détient
+     * @param nom nom du bail (un par job)
+     * @param ecartMin durée minimale entre deux exécutions : couvre le décalage d'horloge entre instances
+     *                 qui déclenchent le même cron
+     * @param job traitement
+     * @return false si le job tourne déjà ou vient de tourner (ici ou sur une autre instance) : non exécuté
+     */
+    public boolean executer(String nom, Duration ecartMin, Runnable job) {
+        // Tronquée : la BDD arrondit à la microseconde, "expire_le <= maintenant" doit rester vrai pour une ligne tout juste créée
+        LocalDateTime debut = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime disponibilitePrecedente = acquerir(nom, debut, false);
+        if (disponibilitePrecedente == null) {
+            log.info("🔒 [BAIL] Job {} en cours ou exécuté récemment (ici ou sur une autre instance) : lancement ignoré.", nom);
+            return false;
+        }
+        try {
+            job.run();
+            return true;
+        } finally {
+            liberer(nom, plusTard(disponibilitePrecedente, debut.plus(ecartMin)));
+        }
+    }
+
+    /**
+     * Lancement manuel d'un job si aucune instance ne l'exécute. L'écart minimal laissé par le dernier cron est ignoré
+     * pour ce lancement, mais conservé à la libération pour les crons suivants. Le bail est réservé sur le thread
+     * appelant (refus immédiat), puis libéré à la fin du traitement
+     * @param nom nom du bail (un par job)
+     * @param executor exécution du traitement (Runnable::run pour rester sur le thread appelant)
+     * @param job traitement
+     * @return false si le job tourne déjà (ici ou sur une autre instance) : non lancé
+     * @throws org.springframework.core.task.TaskRejectedException si l'executor refuse le traitement (bail rendu)
+     */
+    public boolean executerManuel(String nom, Executor executor, Runnable job) {
+        LocalDateTime debut = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime disponibilitePrecedente = acquerir(nom, debut, true);
+        if (disponibilitePrecedente == null) {
+            log.info("🔒 [BAIL] Job {} en cours (ici ou sur une autre instance) : lancement manuel refusé.", nom);
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    job.run();
+                } finally {
+                    liberer(nom, disponibilitePrecedente);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            liberer(nom, disponibilitePrecedente);
+            throw e;
+        }
+    }
+
+    /**
+     * Réservation du bail
+     * @param manuel bail libre de tout propriétaire suffit (l'écart minimal entre deux exécutions est ignoré)
+     * @return disponibilité du bail avant réservation (à conserver à la libération), null si le bail n'est pas libre
+     */
+    private LocalDateTime acquerir(String nom, LocalDateTime maintenant, boolean manuel) {
+        LocalDateTime disponibilitePrecedente = nouvelleTransaction.execute(status -> {
+            jobLeaseRepository.creerSiAbsent(nom, maintenant);
+            Optional<JobLease> disponible = manuel
+                    ? jobLeaseRepository.findLibre(nom, maintenant)
+                    : jobLeaseRepository.findDisponible(nom, maintenant);
+            if (disponible.isEmpty()) return null;
+
+            JobLease bail = disponible.get();
+            LocalDateTime precedente = bail.getExpireLe();
+            bail.setProprietaire(instance);
+            bail.setAcquisLe(maintenant);
+            bail.setDernierBattement(maintenant);
+            bail.setExpireLe(maintenant.plus(duree));
+            return precedente;
+        });
+        if (disponibilitePrecedente != null) detenus.add(nom);
+        return disponibilitePrecedente;
+    }
+
+    private static LocalDateTime plusTard(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private void liberer(String nom, LocalDateTime prochaineDisponibilite) {
+        detenus.remove(nom);
+        try {
+            LocalDateTime maintenant = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            LocalDateTime expireLe = plusTard(prochaineDisponibilite, maintenant);
+            Integer liberes = nouvelleTransaction.execute(status -> jobLeaseRepository.liberer(nom, instance, expireLe));
+            if (liberes == null || liberes == 0) {
+                log.warn("⚠️ [BAIL] Bail {} repris par une autre instance avant la fin du job.", nom);
+            }
+        } catch (Exception e) {
+            // Le bail expirera de lui-même
+            log.error("❌ [BAIL] Libération du bail {} impossible : {}", nom, e.getMessage());
+        }
+    }
+
+    void prolongerDetenus() {
+        for (String nom : detenus) {
+            try {
+                LocalDateTime maintenant = LocalDateTime.now();
+                Integer prolonges = nouvelleTransaction.execute(status ->
+                        jobLeaseRepository.prolonger(nom, instance, maintenant.plus(duree), maintenant));
+                if ((prolonges == null || prolonges == 0) && detenus.contains(nom)) {
+                    log.error("⚠️ [BAIL] Bail {} perdu : expiré puis repris par une autre instance.", nom);
+                }
+            } catch (Exception e) {
+                log.error("❌ [BAIL] Battement du bail {} impossible : {}", nom, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.analyseloto.loto.service;
 
 import com.analyseloto.loto.entity.JobLog;
+import com.analyseloto.loto.enums.JobExecutionStatus;
 import com.analyseloto.loto.repository.JobLogRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,7 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -90,6 +92,44 @@ public class JobMonitorService {
         return jobLogRepository.save(log);
     }
 
+    /**
+     * Enregistrement log d'un job parcourant les utilisateurs par lots : si l'exécution précédente du jour
+     * s'est arrêtée en cours de route (toujours "RUNNING" ou en échec), on reprend après son dernier lot validé
+     * @param name nom job
+     * @return JobLog (dernierIdTraite renseigné en cas de reprise)
+     */
+    @Transactional
+    public JobLog startJobReprenable(String name) {
+        JobLog jobLog = new JobLog(name);
+        Optional<JobLog> precedent = jobLogRepository.findFirstByJobNameOrderByStartTimeDesc(name)
+                .filter(p -> p.getDernierIdTraite() != null)
+                .filter(p -> p.getStartTime().toLocalDate().equals(jobLog.getStartTime().toLocalDate()))
+                .filter(p -> "RUNNING".equals(p.getStatus()) || JobExecutionStatus.FAILURE.getCode().equals(p.getStatus()));
+        if (precedent.isEmpty()) return jobLogRepository.save(jobLog);
+
+        JobLog interrompu = precedent.get();
+        jobLog.setDernierIdTraite(interrompu.getDernierIdTraite());
+        JobLog reprise = jobLogRepository.save(jobLog);
+        if ("RUNNING".equals(interrompu.getStatus())) {
+            interrompu.setStatus(JobExecutionStatus.FAILURE.getCode());
+            interrompu.setMessage("Interrompu après l'id " + interrompu.getDernierIdTraite() + ", repris par le job n°" + reprise.getId() + ".");
+            jobLogRepository.save(interrompu);
+        }
+        log.info("↪️ Reprise du job {} après l'id {}.", name, reprise.getDernierIdTraite());
+        return reprise;
+    }
+
+    /**
+     * Enregistrement du point de reprise (à appeler dans la transaction du lot traité)
+     * @param log log
+     * @param dernierIdTraite id du dernier élément du lot
+     */
+    @Transactional
+    public void checkpoint(JobLog log, long dernierIdTraite) {
+        log.setDernierIdTraite(dernierIdTraite);
+        jobLogRepository.save(log);
+    }
+
     /**
      * Modification statut et message d'un job
      * @param log log
@@ -108,6 +148,23 @@ public class JobMonitorService {
         jobLogRepository.save(log);
     }
 
+    /**
+     * Enregistrement de l'avancement d'un job de traitement en masse
+     * @param log log
+     * @param total éléments à traiter
+     * @param traites éléments traités (succès et échecs)
+     * @param echecs éléments en échec
+     * @param debitParSeconde éléments traités par seconde
+     */
+    @Transactional
+    public void progression(JobLog log, int total, int traites, int echecs, double debitParSeconde) {
+        log.setElementsTotal(total);
+        log.setElementsTraites(traites);
+        log.setElementsEnEchec(echecs);
+        log.setDebitParSeconde(debitParSeconde);
+        jobLogRepository.save(log);
+    }
+
     /**
      * Renvoie liste de tous les jobs
      * @return liste jobs
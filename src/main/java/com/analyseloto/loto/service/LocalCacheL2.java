@@ -0,0 +1,65 @@
+package com.analyseloto.loto.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * L2 en mémoire pour une instance unique (développement, tests) : loto.cache.l2=local.
+ * Pas d'autre instance à prévenir, la publication ne fait rien.
+ */
+@Service
+@ConditionalOnProperty(name = "loto.cache.l2", havingValue = "local", matchIfMissing = true)
+public class LocalCacheL2 implements CacheL2 {
+    private final Map<String, Entree> entrees = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private static final class Entree {
+        private final Object valeur;
+        private final long expireA;
+
+        Entree(Object valeur, long expireA) {
+            this.valeur = valeur;
+            this.expireA = expireA;
+        }
+    }
+
+    @Override
+    public Object lire(String cle) {
+        Entree e = entrees.get(cle);
+        if (e == null) return null;
+        if (e.expireA < System.currentTimeMillis()) {
+            entrees.remove(cle, e);
+            return null;
+        }
+        return e.valeur;
+    }
+
+    @Override
+    public Object ecrireSiAbsent(String cle, Object valeur, Duration ttl) {
+        long expireA = System.currentTimeMillis() + ttl.toMillis();
+        Entree stockee = entrees.compute(cle, (c, e) ->
+                (e == null || e.expireA < System.currentTimeMillis()) ? new Entree(valeur, expireA) : e);
+        return stockee.valeur;
+    }
+
+    @Override
+    public long generation() {
+        return generation.get();
+    }
+
+    @Override
+    public void nouvelleGeneration() {
+        generation.incrementAndGet();
+        entrees.clear();
+    }
+
+    @Override
+    public void publier(String message) {
+        // Instance unique : rien à diffuser
+    }
+}
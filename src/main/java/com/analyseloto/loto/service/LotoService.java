@@ -2,25 +2,25 @@ package com.analyseloto.loto.service;
 
 import com.analyseloto.loto.dto.*;
 import com.analyseloto.loto.entity.*;
+import com.analyseloto.loto.repository.LotoTirageBulkRepository;
 import com.analyseloto.loto.repository.LotoTirageRepository;
 import com.analyseloto.loto.util.Constantes;
+import com.analyseloto.loto.util.GridMask;
+import com.analyseloto.loto.util.LotoMetrics;
+import com.analyseloto.loto.util.PrizeTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -30,19 +30,38 @@ import java.util.stream.IntStream;
 public class LotoService {
 
     private final LotoTirageRepository repository;
+    private final LotoTirageBulkRepository tirageBulkRepository;
+    private final DrawHistoryStore drawHistoryStore;
+    private final DrawSubsetIndex drawSubsetIndex;
+    private final DrawStatsService drawStatsService;
+    private final DrawAffinityService drawAffinityService;
     private final WheelingService wheelingService;
-    private final RestTemplate restTemplate;
+    private final AiScoreProvider aiScoreProvider;
+    private final PronosticCache pronosticCache;
+    private final CacheInvalidationService cacheInvalidationService;
 
-    @Value("${loto.ai.url:http://localhost:8000/predict}")
-    private String pythonApiUrl;
 
-    // Cache local pour éviter de recalculer pendant la même journée
-    private volatile StatsReponse cachedGlobalStats = null;
-    private final AtomicReference<List<PronosticResultDto>> cachedDailyPronosRef = new AtomicReference<>();
-    private volatile LocalDate dateCachedPronos = null;
-
-    private static final String FIELD_DATE_TIRAGE = "dateTirage";
     private static final ZoneId ZONE_PARIS = ZoneId.of("Europe/Paris");
+    // Systèmes réducteurs servis par le générateur (vérifiés au démarrage)
+    public static final int POOL_STANDARD = 10;
+    public static final int POOL_ETENDUE = 12;
+    public static final int GARANTIE_WHEELING = 3;
+    // Nombre de grilles des systèmes complets C(10,5,3,3) et C(12,5,3,3) : plans proposés sur le tableau de bord
+    public static final int GRILLES_STANDARD = 17;
+    public static final int GRILLES_ETENDUE = 31;
+    // Nombre de tirages par INSERT multi-lignes lors d'un import
+    private static final int TAILLE_LOT_IMPORT = 500;
+
+    // Métriques du pipeline de génération (voir LotoMetrics)
+    private static final Timer TIMER_GENERATION = LotoMetrics.generation();
+    private static final Timer TIMER_IA = LotoMetrics.etapeGeneration("ia");
+    private static final Timer TIMER_PISCINE = LotoMetrics.etapeGeneration("piscine");
+    private static final Timer TIMER_WHEELING = LotoMetrics.etapeGeneration("wheeling");
+    private static final Timer TIMER_CHANCE = LotoMetrics.etapeGeneration("chance");
+    private static final Timer TIMER_SIMULATION = LotoMetrics.etapeGeneration("simulation");
+    private static final Timer TIMER_DTO = LotoMetrics.etapeGeneration("dto");
+    private static final Counter IA_MODELE = LotoMetrics.compteur("loto.ia.scores", "Scores IA servis au générateur", "source", "modele");
+    private static final Counter IA_SECOURS = LotoMetrics.compteur("loto.ia.scores", "Scores IA servis au générateur", "source", "secours");
 
     // ==================================================================================
     // 1. MÉTHODES DE DÉMARRAGE (Désormais Stateless et Instantanées)
@@ -67,41 +86,64 @@ public class LotoService {
     // ==================================================================================
 
     public List<PronosticResultDto> genererMultiplesPronostics(LocalDate dateCible, int nombreGrilles) {
-        long startTotal = System.currentTimeMillis();
+        // Piscine (Top 10 ou Top 12 selon la requête IHM) : chaque clé produit toutes les grilles de son système réducteur
+        int poolSize = (nombreGrilles > GRILLES_STANDARD) ? POOL_ETENDUE : POOL_STANDARD;
+
+        // 1. Cache L1 / L2 : un seul calcul par (date, piscine), partagé entre appels concurrents et instances
+        List<PronosticResultDto> resultats = pronosticCache.obtenir(dateCible, poolSize, () -> calculerPronostics(dateCible, poolSize));
+
+        if (nombreGrilles >= resultats.size()) return resultats;
+
+        // Taille demandée inférieure au système : le libellé de garantie du système complet ne s'applique plus,
+        // on affiche la couverture réellement vérifiée des grilles servies (les DTO en cache ne sont pas modifiés)
+        List<PronosticResultDto> servies = resultats.subList(0, Math.max(0, nombreGrilles));
+        Set<Integer> piscine = new TreeSet<>();
+        resultats.forEach(p -> piscine.addAll(p.getBoules()));
+        String libelle = wheelingService.libelleSousSysteme(List.copyOf(piscine), resultats.size(),
+                servies.stream().map(PronosticResultDto::getBoules).toList(), GARANTIE_WHEELING);
+        return servies.stream()
+                .map(p -> new PronosticResultDto(p.getBoules(), p.getNumeroChance(), p.getScoreFitness(),
+                        p.getMaxRatioDuo(), p.getMaxRatioTrio(), p.isDejaSortie(), libelle))
+                .toList();
+    }
 
-        // 1. Vérification du Cache
-        List<PronosticResultDto> cached = cachedDailyPronosRef.get();
-        if (cached != null && dateCible.equals(dateCachedPronos) && cached.size() >= nombreGrilles) {
-            log.info("⚡ [CACHE] Pronostics Value récupérés instantanément.");
-            return cached.subList(0, nombreGrilles);
-        }
+    private List<PronosticResultDto> calculerPronostics(LocalDate dateCible, int poolSize) {
+        Timer.Sample total = Timer.start();
 
         log.info("⚙️ [MOTEUR V8] Inférence AI et création de la Matrice de Steiner pour le {}...", dateCible);
 
-        // 2. Appel API Python pour obtenir l'indice d'impopularité (Value) de chaque numéro
-        double[] pythonScores = getDeepLearningWeights();
-        boolean isApiDown = Arrays.stream(pythonScores).sum() == 0;
+        // 2. Indice d'impopularité (Value) de chaque numéro : dernier état du moteur IA, sans appel réseau
+        AiScoreSnapshot ia = TIMER_IA.record(aiScoreProvider::snapshot);
+        double[] pythonScores = ia.getScores();
 
-        if (isApiDown) {
+        if (ia.isSecours()) {
+            IA_SECOURS.increment();
             log.warn("⚠️ API Python injoignable, utilisation d'un fallback stratégique (Bonus aux numéros > 31).");
-            for(int i=1; i<=49; i++) pythonScores[i] = (i > 31) ? 1.5 : 1.0;
+        } else {
+            IA_MODELE.increment();
+            log.info("📡 [IA V8] Scores du modèle {} (récupérés le {}, EV={}).", ia.getModelVersion(), ia.getRecupereLe(), ia.getEvScore());
+            if (Boolean.FALSE.equals(ia.getPlayAuthorized())) {
+                log.warn("🛑 [SNIPER MODE] Espérance mathématique faible (EV < 1). Stratégiquement, il ne faut pas jouer ce tirage.");
+            }
         }
 
-        // 3. Extraction de la Piscine (Top 10 ou Top 12 selon la requête IHM)
-        int poolSize = (nombreGrilles >= 15) ? 12 : 10;
-        List<Integer> pool = determinerPoolAdaptatif(pythonScores, poolSize);
+        // 3. Extraction de la Piscine
+        List<Integer> pool = TIMER_PISCINE.record(() -> determinerPoolAdaptatif(pythonScores, poolSize));
         log.info("🎯 [POOL VALUE] {} numéros sélectionnés par l'IA : {}", poolSize, pool);
 
         // 4. Système Réducteur (Garantie Mathématique absolue)
         // IMPORTANT: On ne filtre JAMAIS les grilles générées par le Wheeling, sinon on casse la garantie !
-        List<int[]> grillesBrutes = wheelingService.genererSystemeReducteur(pool, 3);
+        List<int[]> grillesBrutes = TIMER_WHEELING.record(() -> wheelingService.genererSystemeReducteur(pool, GARANTIE_WHEELING));
+        String typeAlgo = wheelingService.libelleGarantie(pool.size(), GARANTIE_WHEELING);
         log.info("⚙️ [WHEELING] {} combinaisons structurelles générées.", grillesBrutes.size());
 
         // 5. Numéros Chance (Basé sur les moins sortis récemment pour maximiser les gains)
-        List<LotoTirage> history = repository.findAll(Sort.by(Sort.Direction.DESC, FIELD_DATE_TIRAGE));
-        List<Integer> topChances = getChanceNumbersImpopulaires(history);
+        DrawSubsetIndex.Index index = drawSubsetIndex.courant();
+        List<Integer> topChances = TIMER_CHANCE.record(() -> getChanceNumbersImpopulaires(index.historique()));
 
-        // 6. Construction des DTOs pour l'affichage
+        // 6. Construction des DTOs pour l'affichage (simulation chronométrée grille par grille, le reste au titre du DTO)
+        long debutDto = System.nanoTime();
+        long dureeSimulations = 0;
         List<PronosticResultDto> resultats = new ArrayList<>();
         for (int i = 0; i < grillesBrutes.size(); i++) {
             int[] g = grillesBrutes.get(i);
@@ -111,75 +153,31 @@ public class LotoService {
             double fitness = 0.0;
             for (int b : g) fitness += pythonScores[b];
 
-            SimulationResultDto simu = simulerGrilleDetaillee(Arrays.stream(g).boxed().toList(), dateCible, history);
-            double maxDuo = simu.getPairs().stream().mapToDouble(MatchGroup::getRatio).max().orElse(0.0);
+            // Résumé compact (pas de liste de dates) : seuls le meilleur ratio de paire et la sortie exacte servent ici
+            long debutSimu = System.nanoTime();
+            SimuBatchResultDto.GrilleResume simu = SimulationBatchService.resumer(Arrays.stream(g).boxed().toList(), index);
+            long dureeSimu = System.nanoTime() - debutSimu;
+            TIMER_SIMULATION.record(dureeSimu, TimeUnit.NANOSECONDS);
+            dureeSimulations += dureeSimu;
 
             resultats.add(new PronosticResultDto(
                     Arrays.stream(g).boxed().sorted().toList(),
                     chance,
                     Math.round(fitness * 100.0) / 100.0,
-                    maxDuo, 0.0,
-                    !simu.getQuintuplets().isEmpty(),
-                    "MATRICE STEINER (Garantie 3/3)"
+                    simu.getMaxRatioDuo(), 0.0,
+                    simu.isDejaSortie(),
+                    typeAlgo
             ));
         }
 
         // On trie purement pour l'esthétique de présentation (Les grilles à plus forte "Value" en premier)
         resultats.sort((p1, p2) -> Double.compare(p2.getScoreFitness(), p1.getScoreFitness()));
+        List<PronosticResultDto> liste = List.copyOf(resultats);
+        TIMER_DTO.record(System.nanoTime() - debutDto - dureeSimulations, TimeUnit.NANOSECONDS);
 
-        cachedDailyPronosRef.set(resultats);
-        this.dateCachedPronos = dateCible;
-
-        log.info("🏁 [MOTEUR V8] Terminé en {} ms. {} grilles prêtes.", (System.currentTimeMillis() - startTotal), resultats.size());
-
-        // On retourne la taille demandée (bien que le wheeling doive imposer sa taille de 8 ou 15)
-        return resultats.subList(0, Math.min(resultats.size(), nombreGrilles));
-    }
-
-    private double[] getDeepLearningWeights() {
-        double[] weights = new double[50];
-        Arrays.fill(weights, 0.0);
-
-        try {
-            log.info("📡 [IA V8] Interrogation du Neural Engine Value sur : {}", pythonApiUrl);
-
-            // Pour l'instant, on simule un jackpot à 2 millions.
-            // Idéalement, tu récupéreras cette valeur dynamiquement via FdjService.
-            Map<String, Object> requestBody = Map.of(
-                    "history", Collections.emptyList(),
-                    "current_jackpot", 2000000.0,
-                    "ticket_cost", 2.20
-            );
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(pythonApiUrl, requestBody, Map.class);
-
-            if (response != null && response.containsKey("number_scores")) {
-                // --- SNIPER MODE LOGIC ---
-                Boolean playAuthorized = (Boolean) response.get("play_authorized");
-                Double evScore = ((Number) response.get("ev_score")).doubleValue();
-
-                log.info("🎯 [SNIPER MODE] EV (Rentabilité) : {}", evScore);
-                if (Boolean.FALSE.equals(playAuthorized)) {
-                    log.warn("🛑 [SNIPER MODE] Espérance mathématique faible (EV < 1). Stratégiquement, il ne faut pas jouer ce tirage.");
-                    // Note : Tu peux ajouter un return immédiat ici si tu veux bloquer
-                    // purement et simplement la génération des grilles en Java.
-                }
-
-                // --- LECTURE DES POIDS ---
-                @SuppressWarnings("unchecked")
-                Map<String, Number> numberScores = (Map<String, Number>) response.get("number_scores");
-                numberScores.forEach((k, v) -> {
-                    try {
-                        int boule = Integer.parseInt(k);
-                        if (boule >= 1 && boule <= 49) weights[boule] = v.doubleValue();
-                    } catch (NumberFormatException ignored) {}
-                });
-            }
-        } catch (Exception e) {
-            log.error("❌ [IA V8] Erreur API Python : {}", e.getMessage());
-        }
-        return weights;
+        long dureeNs = total.stop(TIMER_GENERATION);
+        log.info("🏁 [MOTEUR V8] Terminé en {} ms. {} grilles prêtes.", TimeUnit.NANOSECONDS.toMillis(dureeNs), liste.size());
+        return liste;
     }
 
     private List<Integer> determinerPoolAdaptatif(double[] weights, int requestedPoolSize) {
@@ -197,7 +195,7 @@ public class LotoService {
                 .sorted((a, b) -> Double.compare(weights[b], weights[a])).toList();
 
         // 2. Échantillonnage Stratifié en fonction du Plan demandé
-        if (requestedPoolSize >= 15) {
+        if (requestedPoolSize >= POOL_ETENDUE) {
             // Plan Syndicat (Pool de 12) : 50% Hauts, 25% Moyens, 25% Bas
             pool.addAll(haut.subList(0, 6));
             pool.addAll(moyen.subList(0, 3));
@@ -220,12 +218,13 @@ public class LotoService {
         return pool;
     }
 
-    private List<Integer> getChanceNumbersImpopulaires(List<LotoTirage> history) {
+    private List<Integer> getChanceNumbersImpopulaires(DrawHistoryStore.Snapshot history) {
         // Stratégie Value : On prend les numéros chance les MOINS sortis sur les 100 derniers tirages
         int[] freq = new int[11];
-        int limit = Math.min(history.size(), 100);
-        for(int i=0; i<limit; i++) {
-            freq[history.get(i).getNumeroChance()]++;
+        int fin = history.taille();
+        int debut = Math.max(0, fin - 100);
+        for(int i=debut; i<fin; i++) {
+            freq[history.chance(i)]++;
         }
         return IntStream.rangeClosed(1, 10)
                 .boxed()
@@ -239,166 +238,110 @@ public class LotoService {
     // ==================================================================================
 
     public StatsReponse getStats(String jourFiltre) {
-        StatsReponse localCache = this.cachedGlobalStats;
-        if (jourFiltre == null && localCache != null) return localCache;
+        DayOfWeek filtre = (jourFiltre != null && !jourFiltre.isEmpty()) ? DayOfWeek.valueOf(jourFiltre.toUpperCase()) : null;
+        return drawStatsService.stats(filtre);
+    }
 
-        List<LotoTirage> all = repository.findAll(Sort.by(Sort.Direction.DESC, FIELD_DATE_TIRAGE));
-        if (jourFiltre != null && !jourFiltre.isEmpty()) {
-            DayOfWeek d = DayOfWeek.valueOf(jourFiltre.toUpperCase());
-            all = all.stream().filter(t -> t.getDateTirage().getDayOfWeek() == d).toList();
-        }
-        if (all.isEmpty()) return new StatsReponse(new ArrayList<>(), "-", "-", 0);
+    /**
+     * Matrice d'affinité des 350 derniers tirages, pondérée pour le jour courant
+     * @return matrice triangulaire tenue à jour à chaque tirage
+     */
+    public DrawAffinityService.AffinityMatrix getMatriceAffinitesPublic() {
+        return drawAffinityService.matrice(LocalDate.now(ZONE_PARIS).getDayOfWeek());
+    }
 
-        LocalDate minDate = all.stream().map(LotoTirage::getDateTirage).min(LocalDate::compareTo).orElse(LocalDate.now());
-        LocalDate maxDate = all.stream().map(LotoTirage::getDateTirage).max(LocalDate::compareTo).orElse(LocalDate.now());
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    public double calculerGainSimule(UserBet bet, LotoTirage tirage) {
+        if (tirage == null || bet == null) return 0.0;
 
-        Map<Integer, Integer> freqMap = new HashMap<>(); Map<Integer, LocalDate> lastSeenMap = new HashMap<>();
-        Map<Integer, Integer> freqChance = new HashMap<>(); Map<Integer, LocalDate> lastSeenChance = new HashMap<>();
+        // Comparaison par masque binaire, gain lu dans la table des rangs du tirage
+        return PrizeTable.of(tirage).gain(bet.getMasque(), bet.getChance());
+    }
 
-        for (LotoTirage t : all) {
-            for (Integer b : t.getBoules()) {
-                freqMap.merge(b, 1, Integer::sum);
-                if (!lastSeenMap.containsKey(b) || t.getDateTirage().isAfter(lastSeenMap.get(b))) lastSeenMap.put(b, t.getDateTirage());
-            }
-            freqChance.merge(t.getNumeroChance(), 1, Integer::sum);
-            if (!lastSeenChance.containsKey(t.getNumeroChance()) || t.getDateTirage().isAfter(lastSeenChance.get(t.getNumeroChance()))) lastSeenChance.put(t.getNumeroChance(), t.getDateTirage());
-        }
+    public SimulationResultDto simulerGrilleDetaillee(List<Integer> boulesJouees, LocalDate dateSimul) {
+        return simulerGrilleDetaillee(boulesJouees, dateSimul, drawSubsetIndex.courant());
+    }
 
-        List<StatPoint> stats = new ArrayList<>();
-        for (int i = 1; i <= 49; i++) {
-            StatPoint s = new StatPoint(); s.setNumero(i); s.setFrequence(freqMap.getOrDefault(i, 0)); s.setChance(false);
-            LocalDate last = lastSeenMap.get(i); s.setEcart(last == null ? 999 : (int) ChronoUnit.DAYS.between(last, maxDate)); stats.add(s);
-        }
-        for (int i = 1; i <= 10; i++) {
-            StatPoint s = new StatPoint(); s.setNumero(i); s.setFrequence(freqChance.getOrDefault(i, 0)); s.setChance(true);
-            LocalDate last = lastSeenChance.get(i); s.setEcart(last == null ? 999 : (int) ChronoUnit.DAYS.between(last, maxDate)); stats.add(s);
-        }
+    /**
+     * Simulation d'une grille sur l'historique via l'index des sous-ensembles :
+     * une lecture par sous-ensemble de 2 à 5 numéros de la grille (26 pour une grille de 5).
+     * Un tirage n'est compté que dans le groupe correspondant exactement à son intersection avec la grille.
+     * @param boulesJouees boules de la grille
+     * @param dateSimul date simulée (pour le repérage "même jour")
+     * @param index index des sous-ensembles (et son historique)
+     * @return résultat, groupes triés du plus récent au plus ancien
+     */
+    public SimulationResultDto simulerGrilleDetaillee(List<Integer> boulesJouees, LocalDate dateSimul, DrawSubsetIndex.Index index) {
+        SimulationResultDto result = new SimulationResultDto();
+        try { result.setDateSimulee(dateSimul.format(DateTimeFormatter.ofPattern(Constantes.FORMAT_DATE_STANDARD))); } catch (Exception e) { result.setDateSimulee(dateSimul.toString()); }
+        result.setJourSimule(dateSimul.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.FRANCE).toUpperCase());
 
-        StatsReponse reponse = new StatsReponse(stats, minDate.format(fmt), maxDate.format(fmt), all.size());
-        if (jourFiltre == null) this.cachedGlobalStats = reponse;
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern(Constantes.FORMAT_DATE_STANDARD);
+        DrawHistoryStore.Snapshot historique = index.historique();
+        long masqueJoue = GridMask.of(boulesJouees);
+        int[] joues = GridMask.toArray(masqueJoue);
+        int[] sousEnsemble = new int[DrawSubsetIndex.K_MAX];
 
-        return reponse;
-    }
+        // Groupes par taille, indexés par leur tirage le plus récent (unique : l'intersection d'un tirage est un seul sous-ensemble)
+        List<TreeMap<Integer, MatchGroup>> groupes = new ArrayList<>();
+        for (int k = 0; k <= DrawSubsetIndex.K_MAX; k++) groupes.add(new TreeMap<>(Comparator.reverseOrder()));
 
-    @Cacheable(value = "statsGlobales", key = "'MATRICE_GRAPHE_PUBLIC'")
-    public Map<Integer, Map<Integer, Integer>> getMatriceAffinitesPublic() {
-        List<LotoTirage> history = repository.findAll();
-        int[][] matrice = construireMatriceAffinitesDirecte(history, LocalDate.now().getDayOfWeek());
+        for (int sous = 0; sous < (1 << joues.length); sous++) {
+            int k = Integer.bitCount(sous);
+            if (k < DrawSubsetIndex.K_MIN || k > DrawSubsetIndex.K_MAX) continue;
 
-        Map<Integer, Map<Integer, Integer>> resultat = new HashMap<>();
-        for (int i = 1; i <= 49; i++) {
-            Map<Integer, Integer> ligne = new HashMap<>();
-            for (int j = 1; j <= 49; j++) {
-                if (i != j && matrice[i][j] > 0) ligne.put(j, matrice[i][j]);
+            int j = 0;
+            for (int b = 0; b < joues.length; b++) {
+                if ((sous & (1 << b)) != 0) sousEnsemble[j++] = joues[b];
             }
-            if (!ligne.isEmpty()) resultat.put(i, ligne);
-        }
-        return resultat;
-    }
 
-    private int[][] construireMatriceAffinitesDirecte(List<LotoTirage> history, DayOfWeek jourCible) {
-        int[][] matrice = new int[50][50];
-        int limit = Math.min(history.size(), 350);
-        for (int i = 0; i < limit; i++) {
-            LotoTirage t = history.get(i);
-            int poids = (t.getDateTirage().getDayOfWeek() == jourCible) ? 6 : 1;
-            List<Integer> boules = t.getBoules();
-            int nbBoules = boules.size();
-            for (int k = 0; k < nbBoules; k++) {
-                int n1 = boules.get(k);
-                for (int m = k + 1; m < nbBoules; m++) {
-                    int n2 = boules.get(m);
-                    matrice[n1][n2] += poids;
-                    matrice[n2][n1] += poids;
-                }
+            int[] tirages = index.tirages(sousEnsemble, k);
+            List<String> dates = null;
+            boolean memeJour = false;
+            int plusRecent = -1;
+            // Postings chronologiques : parcours à l'envers pour l'ordre d'affichage
+            for (int p = tirages.length - 1; p >= 0; p--) {
+                int d = tirages[p];
+                if (Long.bitCount(historique.masque(d) & masqueJoue) != k) continue;
+
+                LocalDate date = historique.date(d);
+                boolean mj = date.getDayOfWeek() == dateSimul.getDayOfWeek();
+                if (dates == null) { dates = new ArrayList<>(); plusRecent = d; }
+                dates.add(date.format(fmt) + (mj ? " (Même jour !)" : ""));
+                memeJour |= mj;
             }
-        }
-        return matrice;
-    }
 
-    public double calculerGainSimule(UserBet bet, LotoTirage tirage) {
-        if (tirage == null || bet == null) return 0.0;
-
-        List<Integer> tirageBoules = tirage.getBoules();
-        if (tirageBoules == null || tirageBoules.isEmpty()) {
-            tirageBoules = List.of(tirage.getBoule1(), tirage.getBoule2(), tirage.getBoule3(), tirage.getBoule4(), tirage.getBoule5());
-        }
-        int matches = 0;
-        if (tirageBoules.contains(bet.getB1())) matches++;
-        if (tirageBoules.contains(bet.getB2())) matches++;
-        if (tirageBoules.contains(bet.getB3())) matches++;
-        if (tirageBoules.contains(bet.getB4())) matches++;
-        if (tirageBoules.contains(bet.getB5())) matches++;
-
-        boolean chanceMatch = (bet.getChance() == tirage.getNumeroChance());
-        int rankPosition = 0;
-        if (matches == 5 && chanceMatch) rankPosition = 1;
-        else if (matches == 5) rankPosition = 2;
-        else if (matches == 4 && chanceMatch) rankPosition = 3;
-        else if (matches == 4) rankPosition = 4;
-        else if (matches == 3 && chanceMatch) rankPosition = 5;
-        else if (matches == 3) rankPosition = 6;
-        else if (matches == 2 && chanceMatch) rankPosition = 7;
-        else if (matches == 2) rankPosition = 8;
-        else if (matches == 0 && chanceMatch) rankPosition = 9;
-
-        if (rankPosition > 0) {
-            int finalRankPos = rankPosition;
-            if (tirage.getRanks() != null && !tirage.getRanks().isEmpty()) {
-                return tirage.getRanks().stream().filter(r -> r.getRankNumber() == finalRankPos).findFirst().map(LotoTirageRank::getPrize).orElseGet(() -> (finalRankPos == 9) ? 2.20 : 0.0);
+            if (dates != null) {
+                List<Integer> nums = new ArrayList<>(k);
+                for (int b = 0; b < k; b++) nums.add(sousEnsemble[b]);
+                MatchGroup group = new MatchGroup(nums, dates, memeJour, 0.0);
+                updateRatio(group, historique.taille(), k);
+                groupes.get(k).put(plusRecent, group);
             }
-            return (rankPosition == 9) ? 2.20 : 0.0;
         }
-        return 0.0;
-    }
 
-    public SimulationResultDto simulerGrilleDetaillee(List<Integer> boulesJouees, LocalDate dateSimul, List<LotoTirage> historique) {
-        SimulationResultDto result = new SimulationResultDto();
-        try { result.setDateSimulee(dateSimul.format(DateTimeFormatter.ofPattern(Constantes.FORMAT_DATE_STANDARD))); } catch (Exception e) { result.setDateSimulee(dateSimul.toString()); }
-        result.setJourSimule(dateSimul.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.FRANCE).toUpperCase());
-        result.setQuintuplets(new ArrayList<>()); result.setQuartets(new ArrayList<>()); result.setTrios(new ArrayList<>()); result.setPairs(new ArrayList<>());
-
-        for (LotoTirage t : historique) {
-            List<Integer> commun = new ArrayList<>(t.getBoules()); commun.retainAll(boulesJouees);
-            int taille = commun.size();
-            if (taille >= 2) {
-                String dateHist;
-                try { dateHist = t.getDateTirage().format(DateTimeFormatter.ofPattern(Constantes.FORMAT_DATE_STANDARD)); } catch (Exception e) { dateHist = t.getDateTirage().toString(); }
-                boolean memeJour = t.getDateTirage().getDayOfWeek() == dateSimul.getDayOfWeek();
-                addToResult(result, taille, commun, dateHist, memeJour, historique.size());
-            }
-        }
+        result.setQuintuplets(new ArrayList<>(groupes.get(5).values()));
+        result.setQuartets(new ArrayList<>(groupes.get(4).values()));
+        result.setTrios(new ArrayList<>(groupes.get(3).values()));
+        result.setPairs(new ArrayList<>(groupes.get(2).values()));
         return result;
     }
 
-    private void addToResult(SimulationResultDto res, int taille, List<Integer> nums, String date, boolean memeJour, int totalTirages) {
-        List<MatchGroup> targetList = switch (taille) {
-            case 5 -> res.getQuintuplets(); case 4 -> res.getQuartets(); case 3 -> res.getTrios(); case 2 -> res.getPairs(); default -> null;
-        };
-        if (targetList != null) {
-            Collections.sort(nums);
-            Optional<MatchGroup> existing = targetList.stream().filter(m -> m.getNumeros().equals(nums)).findFirst();
-            if (existing.isPresent()) {
-                MatchGroup group = existing.get();
-                group.getDates().add(date + (memeJour ? " (Même jour !)" : ""));
-                if (memeJour) group.setSameDayOfWeek(true);
-                updateRatio(group, totalTirages, taille);
-            } else {
-                List<String> dates = new ArrayList<>(); dates.add(date + (memeJour ? " (Même jour !)" : ""));
-                MatchGroup newGroup = new MatchGroup(nums, dates, memeJour, 0.0);
-                updateRatio(newGroup, totalTirages, taille);
-                targetList.add(newGroup);
-            }
-        }
+    private void updateRatio(MatchGroup group, int totalTirages, int taille) {
+        group.setRatio(calculerRatio(group.getDates().size(), totalTirages, taille));
     }
 
-    private void updateRatio(MatchGroup group, int totalTirages, int taille) {
+    /**
+     * Ratio entre le nombre de sorties réel et le nombre attendu par le hasard
+     * @param nbreReel nombre de sorties constatées
+     * @param totalTirages taille de l'historique
+     * @param taille taille du sous-ensemble (1 à 5 numéros)
+     * @return ratio arrondi à 2 décimales (1.0 = normal)
+     */
+    public static double calculerRatio(int nbreReel, int totalTirages, int taille) {
         double probaTheo = switch (taille) { case 1 -> 0.10204; case 2 -> 0.00850; case 3 -> 0.00041; case 4 -> 0.0000096; case 5 -> 0.00000052; default -> 0.0; };
         double nbreAttendu = totalTirages * probaTheo;
-        int nbreReel = group.getDates().size();
         double ratio = (nbreAttendu > 0) ? (nbreReel / nbreAttendu) : 0.0;
-        group.setRatio(Math.round(ratio * 100.0) / 100.0);
+        return Math.round(ratio * 100.0) / 100.0;
     }
 
     public LocalDate recupererDateProchainTirage() {
@@ -420,45 +363,102 @@ public class LotoService {
     // 4. IMPORTS & GESTION DE DONNÉES
     // ==================================================================================
 
-    @CacheEvict(value = {"statsGlobales", "pronosticsIA"}, allEntries = true)
-    public void importCsv(MultipartFile file) throws IOException {
+    /**
+     * Import d'une archive FDJ (format CSV ";" ou format texte à colonnes), lue en flux.
+     * Les dates déjà connues sont filtrées en mémoire, les nouvelles lignes sont insérées par paquets
+     * avec ON CONFLICT DO NOTHING (chacun dans sa transaction), puis l'historique en mémoire est rechargé une seule fois,
+     * même si l'import est interrompu après l'insertion de premiers paquets.
+     * @param file fichier envoyé
+     * @return rapport d'import
+     */
+    public ImportReportDto importCsv(MultipartFile file) throws IOException {
+        long start = System.currentTimeMillis();
+        DateTimeFormatter fmt1 = DateTimeFormatter.ofPattern(Constantes.FORMAT_DATE_STANDARD);
+        DateTimeFormatter fmt2 = DateTimeFormatter.ofPattern(Constantes.FORMAT_DATE_STANDARD_INVERSE);
+
+        // Dates déjà en base (via l'historique mémoire) + dates déjà lues dans le fichier
+        DrawHistoryStore.Snapshot historique = drawHistoryStore.snapshot();
+        Set<Integer> joursConnus = new HashSet<>(historique.taille() * 2);
+        for (int i = 0; i < historique.taille(); i++) joursConnus.add(historique.jour(i));
+
+        int analysees = 0, inseres = 0, ignores = 0, rejetes = 0;
+        List<LotoTirage> lot = new ArrayList<>(TAILLE_LOT_IMPORT);
+
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            List<String> lines = reader.lines().toList();
-            DateTimeFormatter fmt1 = DateTimeFormatter.ofPattern(Constantes.FORMAT_DATE_STANDARD);
-            DateTimeFormatter fmt2 = DateTimeFormatter.ofPattern(Constantes.FORMAT_DATE_STANDARD_INVERSE);
-            for (String line : lines) {
+            String line;
+            while ((line = reader.readLine()) != null) {
                 if (line.trim().isEmpty() || line.startsWith("annee") || line.startsWith("Tirage")) continue;
-                try {
-                    String[] row; LocalDate date; int b1, b2, b3, b4, b5, c;
-                    if (line.contains(Constantes.DELIMITEUR_POINT_VIRGULE)) {
-                        row = line.split(Constantes.DELIMITEUR_POINT_VIRGULE); if(row.length<10) continue;
-                        try{ date=LocalDate.parse(row[2],fmt1); } catch(Exception e) { continue; }
-                        b1=Integer.parseInt(row[4]); b2=Integer.parseInt(row[5]); b3=Integer.parseInt(row[6]); b4=Integer.parseInt(row[7]); b5=Integer.parseInt(row[8]); c=Integer.parseInt(row[9]);
-                    } else {
-                        row = line.trim().split("\\s+"); if(row.length<8) continue;
-                        try{date=LocalDate.parse(row[6],fmt2);}catch(Exception e){try{date=LocalDate.parse(row[6],fmt1);}catch(Exception ex){continue;}}
-                        b1=Integer.parseInt(row[1]); b2=Integer.parseInt(row[2]); b3=Integer.parseInt(row[3]); b4=Integer.parseInt(row[4]); b5=Integer.parseInt(row[5]); c=Integer.parseInt(row[7]);
-                    }
-                    if (!repository.existsByDateTirage(date)) {
-                        LotoTirage t = new LotoTirage();
-                        t.setDateTirage(date); t.setBoule1(b1); t.setBoule2(b2); t.setBoule3(b3); t.setBoule4(b4); t.setBoule5(b5); t.setNumeroChance(c);
-                        repository.save(t);
-                    }
-                } catch(Exception e) { log.error("Erreur ligne: {}", line); }
+                LotoTirage t = parserLigneImport(line, fmt1, fmt2);
+                if (t == null) {
+                    rejetes++;
+                    continue;
+                }
+                analysees++;
+                if (!joursConnus.add((int) t.getDateTirage().toEpochDay())) {
+                    ignores++;
+                    continue;
+                }
+                lot.add(t);
+                if (lot.size() == TAILLE_LOT_IMPORT) {
+                    int n = tirageBulkRepository.insererSansDoublons(lot);
+                    inseres += n;
+                    ignores += lot.size() - n; // Conflit : inséré entre-temps par un autre chemin
+                    lot.clear();
+                }
+            }
+            int n = tirageBulkRepository.insererSansDoublons(lot);
+            inseres += n;
+            ignores += lot.size() - n;
+        } finally {
+            // Rechargement unique de l'historique en mémoire, y compris si l'import s'interrompt :
+            // chaque paquet est validé séparément, ceux déjà insérés doivent être visibles partout
+            if (inseres > 0) {
+                drawHistoryStore.recharger();
+                cacheInvalidationService.invaliderPartout("IMPORT_CSV");
+            }
+        }
+
+        ImportReportDto rapport = new ImportReportDto(analysees, inseres, ignores, rejetes, System.currentTimeMillis() - start);
+        log.info("📥 [IMPORT] {} lignes analysées, {} insérées, {} ignorées, {} rejetées en {} ms.",
+                analysees, inseres, ignores, rejetes, rapport.getDureeMs());
+        return rapport;
+    }
+
+    /**
+     * Lecture d'une ligne d'archive FDJ
+     * @return tirage non enregistré, ou null si la ligne est illisible ou hors limites
+     */
+    private LotoTirage parserLigneImport(String line, DateTimeFormatter fmt1, DateTimeFormatter fmt2) {
+        try {
+            String[] row; LocalDate date; int b1, b2, b3, b4, b5, c;
+            if (line.contains(Constantes.DELIMITEUR_POINT_VIRGULE)) {
+                row = line.split(Constantes.DELIMITEUR_POINT_VIRGULE); if(row.length<10) return null;
+                date=LocalDate.parse(row[2],fmt1);
+                b1=Integer.parseInt(row[4]); b2=Integer.parseInt(row[5]); b3=Integer.parseInt(row[6]); b4=Integer.parseInt(row[7]); b5=Integer.parseInt(row[8]); c=Integer.parseInt(row[9]);
+            } else {
+                row = line.trim().split("\\s+"); if(row.length<8) return null;
+                try{date=LocalDate.parse(row[6],fmt2);}catch(Exception e){date=LocalDate.parse(row[6],fmt1);}
+                b1=Integer.parseInt(row[1]); b2=Integer.parseInt(row[2]); b3=Integer.parseInt(row[3]); b4=Integer.parseInt(row[4]); b5=Integer.parseInt(row[5]); c=Integer.parseInt(row[7]);
             }
-            this.cachedGlobalStats = null;
-            cachedDailyPronosRef.set(null);
+            // 5 boules distinctes entre 1 et 49, chance entre 1 et 10
+            if (GridMask.taille(GridMask.of(b1, b2, b3, b4, b5)) != 5 || c < 1 || c > 10) return null;
+
+            LotoTirage t = new LotoTirage();
+            t.setDateTirage(date); t.setBoule1(b1); t.setBoule2(b2); t.setBoule3(b3); t.setBoule4(b4); t.setBoule5(b5); t.setNumeroChance(c);
+            return t;
+        } catch (Exception e) {
+            log.error("Erreur ligne: {}", line);
+            return null;
         }
     }
 
-    @CacheEvict(value = {"statsGlobales", "pronosticsIA"}, allEntries = true)
     public LotoTirage ajouterTirageManuel(TirageManuelDto dto) {
         if (repository.existsByDateTirage(dto.getDateTirage())) throw new RuntimeException("Ce tirage existe déjà");
         LotoTirage t = new LotoTirage();
         t.setDateTirage(dto.getDateTirage()); t.setBoule1(dto.getBoule1()); t.setBoule2(dto.getBoule2()); t.setBoule3(dto.getBoule3()); t.setBoule4(dto.getBoule4()); t.setBoule5(dto.getBoule5()); t.setNumeroChance(dto.getNumeroChance());
         repository.save(t);
-        this.cachedGlobalStats = null;
-        this.cachedDailyPronosRef.set(null);
+        drawHistoryStore.ajouter(t);
+        cacheInvalidationService.invaliderPartout("AJOUT_MANUEL " + t.getDateTirage());
         return t;
     }
 }
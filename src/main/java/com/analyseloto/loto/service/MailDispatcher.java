@@ -0,0 +1,120 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.entity.EmailOutbox;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Diffusion de mails en masse : rendu sur le thread appelant, puis mise en file d'envoi (outbox) du lot
+ * en une écriture par paquets, dans la transaction de l'appelant. L'envoi SMTP est le travail d'EmailOutboxSender ;
+ * un échec de rendu n'affecte que son destinataire.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MailDispatcher {
+    // Nombre d'adresses en échec conservées dans le rapport
+    private static final int MAX_ECHECS_DETAILLES = 20;
+
+    private final EmailOutboxService emailOutboxService;
+
+    /**
+     * Mise en file d'un lot de destinataires, comptabilisé dans un bilan commun à plusieurs lots.
+     * Les mails du lot sont enregistrés dans la transaction de l'appelant : validés avec elle (et son point de reprise),
+     * ou annulés avec elle. Un échec d'écriture remonte à l'appelant
+     * @param destinataires destinataires du lot
+     * @param adresse adresse d'un destinataire (relevée en cas d'échec du rendu)
+     * @param rendu construction du mail d'un destinataire
+     * @param rapport bilan commun (terminer() à appeler après le dernier lot)
+     * @param progression appelée après la mise en file du lot
+     */
+    public <T> void diffuser(List<T> destinataires, Function<T, String> adresse, Function<T, Mail> rendu,
+                             Rapport rapport, Consumer<Rapport> progression) {
+        List<EmailOutbox> lot = new ArrayList<>(destinataires.size());
+        for (T destinataire : destinataires) {
+            try {
+                Mail mail = rendu.apply(destinataire);
+                lot.add(new EmailOutbox(mail.getTo(), mail.getSubject(), mail.getHtml()));
+            } catch (Exception e) {
+                String destinataireEnEchec = adresse.apply(destinataire);
+                log.error("❌ Échec du rendu du mail de {} : {}", destinataireEnEchec, e.getMessage());
+                rapport.echec(destinataireEnEchec);
+            }
+        }
+        emailOutboxService.enfilerLot(lot);
+        rapport.misEnFile += lot.size();
+        progression.accept(rapport);
+    }
+
+    @Getter
+    public static final class Mail {
+        private final String to;
+        private final String subject;
+        private final String html;
+
+        public Mail(String to, String subject, String html) {
+            this.to = to;
+            this.subject = subject;
+            this.html = html;
+        }
+    }
+
+    /**
+     * Compteurs de diffusion (lus par le suivi de progression) : les mails mis en file ne sont pas encore remis au serveur SMTP,
+     * leur envoi se suit dans la file (EmailOutboxService.etatFile). Alimentés par le seul thread du job
+     */
+    public static final class Rapport {
+        @Getter private final int total;
+        private final long debut = System.currentTimeMillis();
+        @Getter private int misEnFile;
+        @Getter private int echecs;
+        @Getter private int ignores;
+        private final List<String> adressesEnEchec = new ArrayList<>();
+        private long fin;
+
+        public Rapport(int total) {
+            this.total = total;
+        }
+
+        private void echec(String adresse) {
+            echecs++;
+            if (adresse != null && adressesEnEchec.size() < MAX_ECHECS_DETAILLES) adressesEnEchec.add(adresse);
+        }
+
+        /**
+         * Destinataires écartés sans envoi (comptés comme traités)
+         */
+        public void ignorer(int nombre) {
+            ignores += nombre;
+        }
+
+        public void terminer() {
+            fin = System.currentTimeMillis();
+        }
+
+        public int getTraites() { return misEnFile + echecs + ignores; }
+
+        public List<String> getAdressesEnEchec() {
+            return List.copyOf(adressesEnEchec);
+        }
+
+        public long getDureeMs() {
+            return ((fin == 0) ? System.currentTimeMillis() : fin) - debut;
+        }
+
+        /**
+         * Mails traités par seconde depuis le début de la diffusion
+         */
+        public double getDebitParSeconde() {
+            long duree = getDureeMs();
+            return (duree == 0) ? 0.0 : Math.round(getTraites() * 100_000.0 / duree) / 100.0;
+        }
+    }
+}
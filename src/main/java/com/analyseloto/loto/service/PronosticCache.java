@@ -0,0 +1,96 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.PronosticResultDto;
+import com.analyseloto.loto.util.LotoMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Cache des pronostics par (date cible, taille de piscine) sur deux niveaux :
+ * L1 Caffeine propre à l'instance (un futur par clé : un seul calcul, les appels concurrents l'attendent),
+ * L2 partagé (CacheL2) pour que toutes les instances servent les mêmes grilles malgré le tirage aléatoire de la piscine.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PronosticCache {
+    private static final Duration TTL_L2 = Duration.ofHours(48);
+
+    private static final LotoMetrics.CacheCounter CACHE_L1 = LotoMetrics.cache("pronostics.l1");
+    private static final LotoMetrics.CacheCounter CACHE_L2 = LotoMetrics.cache("pronostics.l2");
+
+    private final CacheL2 cacheL2;
+
+    private final Cache<Long, CompletableFuture<List<PronosticResultDto>>> l1 = Caffeine.newBuilder()
+            .maximumSize(100)
+            .expireAfterWrite(Duration.ofHours(24))
+            .build();
+
+    /**
+     * Pronostics d'une clé : L1, sinon L2, sinon calcul (publié dans le L2)
+     * @param calcul calcul complet des pronostics (exécuté au plus une fois par clé et par instance)
+     * @return liste immuable
+     */
+    public List<PronosticResultDto> obtenir(LocalDate dateCible, int poolSize, Supplier<List<PronosticResultDto>> calcul) {
+        long cle = dateCible.toEpochDay() * 100 + poolSize;
+
+        CompletableFuture<List<PronosticResultDto>> futur = new CompletableFuture<>();
+        CompletableFuture<List<PronosticResultDto>> existant = l1.asMap().putIfAbsent(cle, futur);
+        if (existant == null) {
+            CACHE_L1.miss();
+            try {
+                futur.complete(charger(dateCible, poolSize, calcul));
+            } catch (RuntimeException e) {
+                // Pas de mise en cache d'un échec : le prochain appel relance le calcul
+                l1.asMap().remove(cle, futur);
+                futur.completeExceptionally(e);
+                throw e;
+            }
+        } else {
+            CACHE_L1.hit();
+            log.info(existant.isDone() ? "⚡ [CACHE] Pronostics Value récupérés instantanément."
+                    : "⏳ [CACHE] Calcul des pronostics déjà en cours, attente du résultat.");
+            futur = existant;
+        }
+
+        try {
+            return futur.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PronosticResultDto> charger(LocalDate dateCible, int poolSize, Supplier<List<PronosticResultDto>> calcul) {
+        String cleL2 = "loto:pronos:" + cacheL2.generation() + ":" + dateCible + ":" + poolSize;
+        Object partage = cacheL2.lire(cleL2);
+        if (partage instanceof List<?>) {
+            CACHE_L2.hit();
+            log.info("⚡ [CACHE L2] Pronostics du {} (piscine {}) repris d'une autre instance.", dateCible, poolSize);
+            return List.copyOf((List<PronosticResultDto>) partage);
+        }
+        CACHE_L2.miss();
+        // ArrayList (et non une liste immuable) : le type est écrit dans le JSON pour la relecture
+        Object stocke = cacheL2.ecrireSiAbsent(cleL2, new ArrayList<>(calcul.get()), TTL_L2);
+        return List.copyOf((List<PronosticResultDto>) stocke);
+    }
+
+    /**
+     * Vide le L1 de cette instance
+     */
+    public void invaliderL1() {
+        l1.invalidateAll();
+    }
+}
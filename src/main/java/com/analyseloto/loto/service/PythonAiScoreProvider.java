@@ -0,0 +1,121 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.AiScoreSnapshot;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Scores IA du moteur Python, rafraîchis en tâche de fond : les requêtes ne lisent que le dernier état réussi.
+ * Disjoncteur : après ECHECS_AVANT_OUVERTURE échecs consécutifs, on sert les scores de secours (> 31) et on
+ * n'interroge plus le moteur pendant la durée d'ouverture ; un seul essai ensuite (semi-ouvert).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "loto.ai.provider", havingValue = "python", matchIfMissing = true)
+public class PythonAiScoreProvider implements AiScoreProvider {
+    private static final int ECHECS_AVANT_OUVERTURE = 3;
+    private static final AiScoreSnapshot SECOURS = AiScoreSnapshot.secours();
+
+    private final RestTemplate restTemplate;
+    private final ThreadPoolTaskScheduler maintenanceScheduler;
+
+    @Value("${loto.ai.url:http://localhost:8000/predict}")
+    private String pythonApiUrl;
+
+    @Value("${loto.ai.refresh-ms:300000}")
+    private long periodeRafraichissementMs;
+
+    @Value("${loto.ai.circuit-open-ms:600000}")
+    private long dureeOuvertureMs;
+
+    // Dernier état réussi (null tant que le moteur n'a jamais répondu)
+    private volatile AiScoreSnapshot dernierSucces;
+    // Disjoncteur (écrit uniquement par le rafraîchissement, jamais deux passages en parallèle)
+    private volatile boolean ouvert;
+    private int echecsConsecutifs;
+    private long ouvertJusqua;
+
+    @PostConstruct
+    public void demarrer() {
+        Metrics.gauge("loto.ia.disjoncteur.ouvert", this, p -> p.ouvert ? 1 : 0);
+        maintenanceScheduler.scheduleWithFixedDelay(this::rafraichir, Duration.ofMillis(periodeRafraichissementMs));
+    }
+
+    @Override
+    public AiScoreSnapshot snapshot() {
+        AiScoreSnapshot s = dernierSucces;
+        return (ouvert || s == null) ? SECOURS : s;
+    }
+
+    /**
+     * Un cycle de rafraîchissement (planificateur des tâches de fond)
+     */
+    void rafraichir() {
+        if (ouvert && System.currentTimeMillis() < ouvertJusqua) return;
+
+        try {
+            dernierSucces = interroger();
+            if (ouvert) log.info("🔌 [IA V8] Moteur de nouveau joignable, disjoncteur refermé.");
+            ouvert = false;
+            echecsConsecutifs = 0;
+        } catch (Exception e) {
+            echecsConsecutifs++;
+            log.error("❌ [IA V8] Erreur API Python ({} échec(s) consécutif(s)) : {}", echecsConsecutifs, e.getMessage());
+            // Semi-ouvert : un seul échec suffit à rouvrir
+            if (ouvert || echecsConsecutifs >= ECHECS_AVANT_OUVERTURE) {
+                ouvert = true;
+                ouvertJusqua = System.currentTimeMillis() + dureeOuvertureMs;
+                log.warn("⚠️ [IA V8] Disjoncteur ouvert pour {} s : scores de secours (bonus aux numéros > 31).", dureeOuvertureMs / 1000);
+            }
+        }
+    }
+
+    private AiScoreSnapshot interroger() {
+        log.info("📡 [IA V8] Interrogation du Neural Engine Value sur : {}", pythonApiUrl);
+
+        // Pour l'instant, on simule un jackpot à 2 millions.
+        Map<String, Object> requestBody = Map.of(
+                "history", Collections.emptyList(),
+                "current_jackpot", 2000000.0,
+                "ticket_cost", 2.20
+        );
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = restTemplate.postForObject(pythonApiUrl, requestBody, Map.class);
+        if (response == null || !(response.get("number_scores") instanceof Map<?, ?> numberScores)) {
+            throw new IllegalStateException("Réponse sans number_scores");
+        }
+
+        double[] weights = new double[50];
+        numberScores.forEach((k, v) -> {
+            try {
+                int boule = Integer.parseInt(String.valueOf(k));
+                if (boule >= 1 && boule <= 49 && v instanceof Number n) weights[boule] = n.doubleValue();
+            } catch (NumberFormatException ignored) {}
+        });
+        double somme = 0;
+        for (double w : weights) somme += w;
+        if (somme == 0) throw new IllegalStateException("Scores IA tous nuls");
+
+        double evScore = (response.get("ev_score") instanceof Number ev) ? ev.doubleValue() : 0.0;
+        Boolean playAuthorized = (response.get("play_authorized") instanceof Boolean b) ? b : null;
+        Object version = response.get("model_version");
+
+        log.info("🎯 [SNIPER MODE] EV (Rentabilité) : {}", evScore);
+        return new AiScoreSnapshot(weights, evScore, playAuthorized,
+                (version == null) ? "inconnue" : version.toString(), Instant.now());
+    }
+}
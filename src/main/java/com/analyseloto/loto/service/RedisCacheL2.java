@@ -0,0 +1,77 @@
+package com.analyseloto.loto.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * L2 partagé sur Redis (prod) : loto.cache.l2=redis.
+ * Valeurs sérialisées en JSON typé (redisTemplate de CacheConfig), invalidation diffusée en pub/sub.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "loto.cache.l2", havingValue = "redis")
+public class RedisCacheL2 implements CacheL2 {
+    private static final String CLE_GENERATION = "loto:cache:generation";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public Object lire(String cle) {
+        try {
+            return redisTemplate.opsForValue().get(cle);
+        } catch (Exception e) {
+            log.warn("⚠️ [CACHE L2] Lecture {} impossible : {}", cle, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public Object ecrireSiAbsent(String cle, Object valeur, Duration ttl) {
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(cle, valeur, ttl))) return valeur;
+            // Une autre instance a écrit avant nous : on sert sa version pour que toutes les instances répondent pareil
+            Object existante = redisTemplate.opsForValue().get(cle);
+            return (existante != null) ? existante : valeur;
+        } catch (Exception e) {
+            log.warn("⚠️ [CACHE L2] Écriture {} impossible : {}", cle, e.getMessage());
+            return valeur;
+        }
+    }
+
+    @Override
+    public long generation() {
+        try {
+            String g = stringRedisTemplate.opsForValue().get(CLE_GENERATION);
+            return (g == null) ? 0L : Long.parseLong(g);
+        } catch (Exception e) {
+            log.warn("⚠️ [CACHE L2] Lecture de la génération impossible : {}", e.getMessage());
+            return 0L;
+        }
+    }
+
+    @Override
+    public void nouvelleGeneration() {
+        try {
+            stringRedisTemplate.opsForValue().increment(CLE_GENERATION);
+        } catch (Exception e) {
+            log.warn("⚠️ [CACHE L2] Incrément de la génération impossible : {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void publier(String message) {
+        try {
+            stringRedisTemplate.convertAndSend(CacheInvalidationService.CANAL, message);
+        } catch (Exception e) {
+            log.warn("⚠️ [CACHE L2] Publication de l'invalidation impossible : {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.SimuBatchResultDto;
+import com.analyseloto.loto.dto.SimuBatchResultDto.GrilleResume;
+import com.analyseloto.loto.util.GridMask;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulation d'un grand nombre de grilles (feuilles de syndicat, grilles du générateur) sur l'historique.
+ * Les grilles sont découpées en paquets évalués en parallèle (fork-join), chacune en 26 lectures de l'index.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SimulationBatchService {
+    // Un lot complet vide le seau de l'appelant (10 jetons par minute, voir RateLimiterService)
+    public static final int MAX_GRILLES = 10_000;
+    public static final int GRILLES_PAR_JETON = 1_000;
+    // En dessous de ce nombre de grilles, un paquet est évalué séquentiellement
+    private static final int SEUIL_PAQUET = 256;
+
+    private final DrawSubsetIndex drawSubsetIndex;
+    private final ForkJoinPool calculPool;
+
+    /**
+     * Simulation d'un lot de grilles
+     * @param grilles grilles (2 à 5 numéros chacune)
+     * @return résumé par grille, dans l'ordre reçu
+     */
+    public SimuBatchResultDto simulerLot(List<List<Integer>> grilles) {
+        if (grilles.size() > MAX_GRILLES) {
+            throw new IllegalArgumentException("Maximum " + MAX_GRILLES + " grilles par lot");
+        }
+        long start = System.currentTimeMillis();
+
+        // Un seul index pour tout le lot : résultats cohérents même si un tirage arrive pendant le calcul
+        DrawSubsetIndex.Index index = drawSubsetIndex.courant();
+        GrilleResume[] resultats = new GrilleResume[grilles.size()];
+        calculPool.invoke(new PaquetGrilles(grilles, index, resultats, 0, grilles.size()));
+
+        long duree = System.currentTimeMillis() - start;
+        log.info("🧮 [SIMULATION] {} grilles évaluées en {} ms.", grilles.size(), duree);
+        return new SimuBatchResultDto(grilles.size(), index.historique().taille(), duree, Arrays.asList(resultats));
+    }
+
+    /**
+     * Résumé d'une grille : nombre de sorties de la meilleure paire / trio / quartet (intersection exacte
+     * avec le tirage, comme dans la simulation détaillée), grille déjà sortie, ratio de la meilleure paire.
+     * @param boules boules de la grille
+     * @param index index des sous-ensembles
+     * @return résumé (valide = false si la grille est mal formée)
+     */
+    public static GrilleResume resumer(List<Integer> boules, DrawSubsetIndex.Index index) {
+        long masque = (boules == null) ? 0L : GridMask.of(boules);
+        int taille = Long.bitCount(masque);
+        List<Integer> triees = GridMask.toList(masque);
+        if (taille < DrawSubsetIndex.K_MIN || taille > DrawSubsetIndex.K_MAX || taille != boules.size()) {
+            return new GrilleResume(triees, false, 0, 0, 0, false, 0.0);
+        }
+
+        DrawHistoryStore.Snapshot historique = index.historique();
+        int[] joues = GridMask.toArray(masque);
+        int[] sousEnsemble = new int[DrawSubsetIndex.K_MAX];
+        int[] max = new int[DrawSubsetIndex.K_MAX + 1];
+
+        for (int sous = 0; sous < (1 << taille); sous++) {
+            int k = Integer.bitCount(sous);
+            if (k < DrawSubsetIndex.K_MIN) continue;
+
+            int j = 0;
+            for (int b = 0; b < taille; b++) {
+                if ((sous & (1 << b)) != 0) sousEnsemble[j++] = joues[b];
+            }
+            int sorties = 0;
+            for (int d : index.tirages(sousEnsemble, k)) {
+                if (Long.bitCount(historique.masque(d) & masque) == k) sorties++;
+            }
+            if (sorties > max[k]) max[k] = sorties;
+        }
+
+        return new GrilleResume(triees, true, max[2], max[3], max[4], max[5] > 0,
+                LotoService.calculerRatio(max[2], historique.taille(), 2));
+    }
+
+    private static final class PaquetGrilles extends RecursiveAction {
+        private final transient List<List<Integer>> grilles;
+        private final transient DrawSubsetIndex.Index index;
+        private final transient GrilleResume[] resultats;
+        private final int debut;
+        private final int fin;
+
+        PaquetGrilles(List<List<Integer>> grilles, DrawSubsetIndex.Index index, GrilleResume[] resultats, int debut, int fin) {
+            this.grilles = grilles;
+            this.index = index;
+            this.resultats = resultats;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut <= SEUIL_PAQUET) {
+                for (int i = debut; i < fin; i++) resultats[i] = resumer(grilles.get(i), index);
+                return;
+            }
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new PaquetGrilles(grilles, index, resultats, debut, milieu),
+                    new PaquetGrilles(grilles, index, resultats, milieu, fin));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.AiScoreSnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Scores IA locaux et déterministes (tests, développement sans le moteur Python) : loto.ai.provider=stub
+ */
+@Service
+@ConditionalOnProperty(name = "loto.ai.provider", havingValue = "stub")
+public class StubAiScoreProvider implements AiScoreProvider {
+    private final AiScoreSnapshot snapshot;
+
+    public StubAiScoreProvider() {
+        double[] scores = new double[50];
+        for (int i = 1; i <= 49; i++) scores[i] = 1.0 + (i * 7 % 49) / 49.0;
+        this.snapshot = new AiScoreSnapshot(scores, 1.0, true, "stub", Instant.now());
+    }
+
+    @Override
+    public AiScoreSnapshot snapshot() {
+        return snapshot;
+    }
+}
@@ -1,5 +1,6 @@
 package com.analyseloto.loto.service;
 
+import com.analyseloto.loto.entity.LotoTirage;
 import com.analyseloto.loto.entity.User;
 import com.analyseloto.loto.entity.UserBet;
 import com.analyseloto.loto.entity.UserBilan;
@@ -7,17 +8,22 @@ import com.analyseloto.loto.repository.LotoTirageRepository;
 import com.analyseloto.loto.repository.UserBetRepository;
 import com.analyseloto.loto.repository.UserBilanRepository;
 import com.analyseloto.loto.repository.UserRepository;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.ui.Model;
 
+import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserBetService {
+    // Grilles par page de l'historique du tableau de bord (défilement infini)
+    public static final int TAILLE_PAGE_HISTORIQUE = 20;
+
     // Repositories
     private final LotoTirageRepository lotoTirageRepository;
     private final UserRepository userRepository;
@@ -28,20 +34,36 @@ public class UserBetService {
     @Value("${user.ia.mail}")
     private String mailUserIa;
 
-    public List<UserBet> recupererGrillesUtilisateurTriees(User user) {
-        List<UserBet> rawBets = betRepository.findByUser(user);
-
-        if (rawBets.isEmpty()) {
-            return Collections.emptyList();
+    /**
+     * Page de l'historique des grilles d'un utilisateur, avec les tirages officiels correspondants
+     * @param user utilisateur
+     * @param apresDate date de jeu de la dernière grille déjà affichée (null pour la première page)
+     * @param apresId id de la dernière grille déjà affichée (null pour la première page)
+     * @return page, de la grille la plus récente à la plus ancienne
+     */
+    public PageHistorique recupererPageHistorique(User user, LocalDate apresDate, Long apresId) {
+        // Une ligne de plus que la page : indique s'il reste des grilles à charger
+        Limit limit = Limit.of(TAILLE_PAGE_HISTORIQUE + 1);
+        List<Object[]> lignes = (apresDate == null || apresId == null)
+                ? betRepository.findPremierePageHistorique(user, limit)
+                : betRepository.findPageHistorique(user, apresDate, apresId, limit);
+
+        PageHistorique page = new PageHistorique(lignes.size() > TAILLE_PAGE_HISTORIQUE);
+        for (Object[] ligne : lignes.subList(0, Math.min(lignes.size(), TAILLE_PAGE_HISTORIQUE))) {
+            UserBet bet = (UserBet) ligne[0];
+            page.grilles.add(bet);
+            if (ligne[1] != null) page.tirages.put(bet.getDateJeu(), (LotoTirage) ligne[1]);
         }
-        // On trie cette grille selon la date puis grilles classiques / code loto
-
-        return rawBets.stream()
-                .sorted(
-                        Comparator.comparing(UserBet::getDateJeu).reversed()
-                                .thenComparing(bet -> bet.getCodeLoto() != null)
-                )
-                .collect(Collectors.toList());
+        return page;
+    }
+
+    /**
+     * Nombre de grilles enregistrées par l'utilisateur
+     * @param user utilisateur
+     * @return nombre de grilles
+     */
+    public long compterGrilles(User user) {
+        return betRepository.countByUser(user);
     }
 
     /**
@@ -113,4 +135,27 @@ public class UserBetService {
             }
         });
     }
+
+    /**
+     * Page de l'historique des grilles
+     */
+    @Getter
+    public static final class PageHistorique {
+        private final List<UserBet> grilles = new ArrayList<>();
+        // Tirage officiel par date de jeu (dates pas encore tirées absentes)
+        private final Map<LocalDate, LotoTirage> tirages = new HashMap<>();
+        // Des grilles plus anciennes restent à charger
+        private final boolean suite;
+
+        PageHistorique(boolean suite) {
+            this.suite = suite;
+        }
+
+        /**
+         * Curseur de la page suivante : dernière grille de la page
+         */
+        public UserBet getDerniere() {
+            return grilles.isEmpty() ? null : grilles.get(grilles.size() - 1);
+        }
+    }
 }
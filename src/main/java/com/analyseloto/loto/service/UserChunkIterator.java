@@ -0,0 +1,72 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.entity.JobLog;
+import com.analyseloto.loto.entity.User;
+import com.analyseloto.loto.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Parcours des utilisateurs par lots (pagination par clé : "id > dernier id traité", jamais toute la table en mémoire).
+ * Chaque lot est traité dans sa propre transaction, validée avec le point de reprise du JobLog :
+ * un job relancé (voir JobMonitorService.startJobReprenable) repart après le dernier lot validé.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserChunkIterator {
+    public static final int TAILLE_LOT = 500;
+
+    private final UserRepository userRepository;
+    private final JobMonitorService jobMonitorService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Parcours des utilisateurs
+     * @param jobLog job en cours (point de départ et point de reprise)
+     * @param abonnesSeulement uniquement les abonnés aux emails
+     * @param traitement traitement d'un lot
+     * @return nombre d'utilisateurs parcourus
+     */
+    public int parcourirUtilisateurs(JobLog jobLog, boolean abonnesSeulement, Consumer<List<User>> traitement) {
+        return parcourir(jobLog, (apresId, limite) -> abonnesSeulement
+                        ? userRepository.findBySubscribeToEmailsTrueAndIdGreaterThanOrderByIdAsc(apresId, limite)
+                        : userRepository.findByIdGreaterThanOrderByIdAsc(apresId, limite),
+                User::getId, traitement);
+    }
+
+    /**
+     * Parcours générique d'une requête paginée par clé sur l'id utilisateur
+     * @param jobLog job en cours (point de départ et point de reprise)
+     * @param lecture lot suivant : éléments d'id strictement supérieur, par id croissant
+     * @param id id utilisateur d'un élément
+     * @param traitement traitement d'un lot
+     * @return nombre d'éléments parcourus
+     */
+    public <T> int parcourir(JobLog jobLog, BiFunction<Long, Limit, List<T>> lecture, ToLongFunction<T> id, Consumer<List<T>> traitement) {
+        long apresId = (jobLog.getDernierIdTraite() == null) ? 0L : jobLog.getDernierIdTraite();
+        int total = 0;
+        while (true) {
+            final long depuis = apresId;
+            List<T> lot = transactionTemplate.execute(status -> {
+                List<T> elements = lecture.apply(depuis, Limit.of(TAILLE_LOT));
+                if (!elements.isEmpty()) {
+                    traitement.accept(elements);
+                    jobMonitorService.checkpoint(jobLog, id.applyAsLong(elements.get(elements.size() - 1)));
+                }
+                return elements;
+            });
+            if (lot == null || lot.isEmpty()) break;
+            total += lot.size();
+            if (lot.size() < TAILLE_LOT) break;
+            apresId = id.applyAsLong(lot.get(lot.size() - 1));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,116 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.entity.User;
+import com.analyseloto.loto.entity.UserBet;
+import com.analyseloto.loto.entity.UserPlayStats;
+import com.analyseloto.loto.repository.UserBetRepository;
+import com.analyseloto.loto.repository.UserPlayStatsBulkRepository;
+import com.analyseloto.loto.repository.UserPlayStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Tenue à jour des statistiques de jeu par deltas (grille ajoutée, supprimée, réglée, gain corrigé).
+ * Une ligne absente est construite depuis les grilles à la première lecture ou par le job de reconstruction ;
+ * un delta qui échoue est journalisé sans faire échouer l'opération du joueur (corrigé à la reconstruction suivante).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserPlayStatsService {
+    private final UserPlayStatsRepository userPlayStatsRepository;
+    private final UserPlayStatsBulkRepository userPlayStatsBulkRepository;
+    private final UserBetRepository userBetRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Statistiques d'un joueur, construites depuis ses grilles si elles n'existent pas encore
+     * @param user joueur
+     * @return statistiques
+     */
+    public UserPlayStats lire(User user) {
+        return userPlayStatsRepository.findById(user.getId()).orElseGet(() -> {
+            try {
+                return userPlayStatsRepository.save(calculer(user.getId(), userBetRepository.findByUser(user)));
+            } catch (DataIntegrityViolationException e) {
+                // Construite entre-temps par une requête concurrente
+                return userPlayStatsRepository.findById(user.getId()).orElseThrow();
+            }
+        });
+    }
+
+    public void ajouter(User user, Collection<UserBet> paris) {
+        appliquer(user.getId(), stats -> paris.forEach(bet -> stats.appliquer(bet, 1)));
+    }
+
+    public void retirer(User user, Collection<UserBet> paris) {
+        appliquer(user.getId(), stats -> paris.forEach(bet -> stats.appliquer(bet, -1)));
+    }
+
+    /**
+     * Correction manuelle du gain d'une grille
+     * @param bet grille (avec son nouveau gain)
+     * @param ancienGain gain avant correction (null si non réglée)
+     */
+    public void modifierGain(UserBet bet, Double ancienGain) {
+        double delta = ((bet.getGain() == null) ? 0.0 : bet.getGain()) - ((ancienGain == null) ? 0.0 : ancienGain);
+        if (delta == 0.0) return;
+        appliquer(bet.getUser().getId(), stats -> stats.ajouterGains(bet.getDateJeu().getDayOfWeek(), delta));
+    }
+
+    /**
+     * Gains des grilles réglées d'un tirage, ajoutés en une écriture par paquets
+     * @param dateTirage date du tirage
+     * @param gainsParJoueur gains réglés par id utilisateur
+     */
+    public void ajouterGainsReglement(LocalDate dateTirage, Map<Long, Double> gainsParJoueur) {
+        try {
+            userPlayStatsBulkRepository.ajouterGains(dateTirage.getDayOfWeek(), gainsParJoueur);
+        } catch (Exception e) {
+            log.error("❌ [STATS] Gains du tirage du {} non reportés dans les statistiques : {}", dateTirage, e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruction complète des statistiques d'un lot de joueurs (une lecture des grilles du lot)
+     * @param users joueurs
+     */
+    public void reconstruire(List<User> users) {
+        Map<Long, List<UserBet>> parisParJoueur = new HashMap<>();
+        users.forEach(u -> parisParJoueur.put(u.getId(), new ArrayList<>()));
+        for (UserBet bet : userBetRepository.findByUserIdIn(parisParJoueur.keySet())) {
+            parisParJoueur.get(bet.getUser().getId()).add(bet);
+        }
+        List<UserPlayStats> stats = new ArrayList<>(users.size());
+        parisParJoueur.forEach((userId, paris) -> stats.add(calculer(userId, paris)));
+        userPlayStatsRepository.saveAll(stats);
+    }
+
+    private static UserPlayStats calculer(Long userId, List<UserBet> paris) {
+        UserPlayStats stats = new UserPlayStats(userId);
+        paris.forEach(bet -> stats.appliquer(bet, 1));
+        return stats;
+    }
+
+    /**
+     * Delta sur la ligne du joueur, verrouillée pendant la mise à jour (sans effet si la ligne n'est pas encore construite)
+     */
+    private void appliquer(Long userId, Consumer<UserPlayStats> delta) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> userPlayStatsRepository.findVerrouille(userId).ifPresent(delta));
+        } catch (Exception e) {
+            log.error("❌ [STATS] Mise à jour des statistiques du joueur {} impossible : {}", userId, e.getMessage());
+        }
+    }
+}
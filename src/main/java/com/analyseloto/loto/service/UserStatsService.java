@@ -2,10 +2,8 @@ package com.analyseloto.loto.service;
 
 import com.analyseloto.loto.dto.UserStatsDto;
 import com.analyseloto.loto.entity.User;
-import com.analyseloto.loto.entity.UserBet;
 import com.analyseloto.loto.entity.UserBilan;
-import com.analyseloto.loto.enums.BetType;
-import com.analyseloto.loto.repository.UserBetRepository;
+import com.analyseloto.loto.entity.UserPlayStats;
 import com.analyseloto.loto.repository.UserBilanRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,8 +16,9 @@ import java.util.*;
 @RequiredArgsConstructor
 public class UserStatsService {
     // Repositories
-    private final UserBetRepository betRepository;
     private final UserBilanRepository userBilanRepository;
+    // Services
+    private final UserPlayStatsService userPlayStatsService;
 
     /**
      * Méthode calculant les statistiques / bilan du joueur
@@ -45,96 +44,75 @@ public class UserStatsService {
         }
 
         // -------------------------------------------------------------
-        // 2. ANALYSE DU STYLE DE JEU (Les grilles détaillées)
+        // 2. ANALYSE DU STYLE DE JEU (compteurs tenus à jour à chaque grille : une seule ligne lue)
         // -------------------------------------------------------------
-        // Récupérations des grilles de l'utilisateur
-        List<UserBet> bets = betRepository.findByUserOrderByDateJeuDesc(user);
-        stats.setTotalGrilles(bets.size());
+        UserPlayStats jeu = userPlayStatsService.lire(user);
+        stats.setTotalGrilles(jeu.getNbParis());
 
         // Si aucune grille n'a été jouée, on s'arrête ici
-        if (bets.isEmpty()) return stats;
+        if (jeu.getNbParis() == 0) return stats;
 
-        // Déclaration des variables
-        Map<Integer, Integer> freqBoules = new HashMap<>();
-        Map<Integer, Integer> freqChance = new HashMap<>();
-        long totalSomme = 0;
-        int countPairs = 0;
-        int totalNumerosJoues = 0;
-
-        // Création map performances selon les jours
+        // Performances selon les jours de tirage
         Map<String, UserStatsDto.DayPerformance> dayStats = new LinkedHashMap<>();
-        dayStats.put("MONDAY", new UserStatsDto.DayPerformance("Lundi"));
-        dayStats.put("WEDNESDAY", new UserStatsDto.DayPerformance("Mercredi"));
-        dayStats.put("SATURDAY", new UserStatsDto.DayPerformance("Samedi"));
-
-        // Parcourt toutes les grilles
-        for (UserBet bet : bets) {
-            // On s'assure que c'est bien une grille
-            boolean isGrille = BetType.GRILLE.equals(bet.getType()) && bet.getB1() != null;
-
-            if (isGrille) {
-                // Liste des boules
-                List<Integer> gr = List.of(bet.getB1(), bet.getB2(), bet.getB3(), bet.getB4(), bet.getB5());
-
-                // Calcul somme
-                totalSomme += gr.stream().mapToInt(Integer::intValue).sum();
-                for (Integer n : gr) {
-                    freqBoules.merge(n, 1, Integer::sum);
-                    if (n % 2 == 0) countPairs++;
-                    totalNumerosJoues++;
-                }
-
-                if (bet.getChance() != null) freqChance.merge(bet.getChance(), 1, Integer::sum);
-            }
-
-            // Ajout des gains au jour défini
-            String dayKey = bet.getDateJeu().getDayOfWeek().name();
-            if (dayStats.containsKey(dayKey)) {
-                UserStatsDto.DayPerformance p = dayStats.get(dayKey);
-                p.setNbJeux(p.getNbJeux() + 1);
-                p.setDepense(p.getDepense() + bet.getMise());
-                if (bet.getGain() != null) p.setGains(p.getGains() + bet.getGain());
-            }
-        }
+        dayStats.put("MONDAY", performance("Lundi", jeu.getNbJeuxLundi(), jeu.getDepenseLundi(), jeu.getGainsLundi()));
+        dayStats.put("WEDNESDAY", performance("Mercredi", jeu.getNbJeuxMercredi(), jeu.getDepenseMercredi(), jeu.getGainsMercredi()));
+        dayStats.put("SATURDAY", performance("Samedi", jeu.getNbJeuxSamedi(), jeu.getDepenseSamedi(), jeu.getGainsSamedi()));
         stats.setPerformanceParJour(dayStats);
 
         // Calcul moyenne somme des boules
-        long nbGrillesReelles = bets.stream().filter(b -> BetType.GRILLE.equals(b.getType()) && b.getB1() != null).count();
-        if (nbGrillesReelles > 0) {
-            stats.setMoyenneSomme(Math.round((double) totalSomme / nbGrillesReelles));
+        if (jeu.getNbGrilles() > 0) {
+            stats.setMoyenneSomme(Math.round((double) jeu.getSommeBoules() / jeu.getNbGrilles()));
         } else {
             stats.setMoyenneSomme(0);
         }
 
-        stats.setTotalPairsJoues(countPairs);
-        stats.setTotalImpairsJoues(totalNumerosJoues - countPairs);
+        int totalNumerosJoues = 0;
+        for (int f : jeu.getFrequencesBoules()) totalNumerosJoues += f;
+        stats.setTotalPairsJoues(jeu.getNbPairs());
+        stats.setTotalImpairsJoues(totalNumerosJoues - jeu.getNbPairs());
 
         // Calcul de la parité (Pairs / Impairs)
         if (totalNumerosJoues > 0) {
-            double ratioPair = (double) countPairs / totalNumerosJoues;
+            double ratioPair = (double) jeu.getNbPairs() / totalNumerosJoues;
             int p = (int) Math.round(ratioPair * 5);
             stats.setPariteMoyenne(p + " Pairs / " + (5 - p) + " Impairs");
         } else {
             stats.setPariteMoyenne("N/A");
         }
 
-        // On calcule les 5 boules plus jouées
-        stats.setTopBoules(freqBoules.entrySet().stream()
-                .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-                .limit(5).map(e -> new UserStatsDto.StatNumero(e.getKey(), e.getValue())).toList());
-
-        // On calcule les 3 chances plus jouées
-        stats.setTopChance(freqChance.entrySet().stream()
-                .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-                .limit(3).map(e -> new UserStatsDto.StatNumero(e.getKey(), e.getValue())).toList());
+        // On calcule les 5 boules et les 3 chances plus jouées
+        stats.setTopBoules(plusJoues(jeu.getFrequencesBoules(), 5));
+        stats.setTopChance(plusJoues(jeu.getFrequencesChance(), 3));
 
         // Remplissage des boules jamais jouées par l'utilisateur
         List<Integer> jamais = new ArrayList<>();
-        for(int i=1; i<=49; i++) {
-            if(!freqBoules.containsKey(i)) jamais.add(i);
+        for (int i = 1; i <= UserPlayStats.NB_BOULES; i++) {
+            if (jeu.getFrequencesBoules()[i - 1] == 0) jamais.add(i);
         }
         stats.setNumJamaisJoues(jamais);
 
         return stats;
     }
+
+    private static UserStatsDto.DayPerformance performance(String jour, int nbJeux, double depense, double gains) {
+        UserStatsDto.DayPerformance p = new UserStatsDto.DayPerformance(jour);
+        p.setNbJeux(nbJeux);
+        p.setDepense(depense);
+        p.setGains(gains);
+        return p;
+    }
+
+    /**
+     * Numéros les plus joués (à égalité, le plus petit numéro d'abord)
+     * @param frequences frequences[n - 1] = nombre de grilles avec le numéro n
+     * @param limite nombre de numéros retenus
+     */
+    private static List<UserStatsDto.StatNumero> plusJoues(int[] frequences, int limite) {
+        List<UserStatsDto.StatNumero> joues = new ArrayList<>();
+        for (int i = 0; i < frequences.length; i++) {
+            if (frequences[i] > 0) joues.add(new UserStatsDto.StatNumero(i + 1, frequences[i]));
+        }
+        joues.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+        return joues.subList(0, Math.min(limite, joues.size()));
+    }
 }
@@ -0,0 +1,187 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.WheelVerificationDto;
+import com.analyseloto.loto.util.LotoMetrics;
+import com.analyseloto.loto.util.WheelCatalog;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalogue des systèmes réducteurs servis par WheelingService.
+ * Au démarrage, le fichier configuré est projeté en mémoire (ou, à défaut, le catalogue embarqué est chargé) :
+ * aucun système n'est calculé sur le chemin d'une requête.
+ * La régénération (job admin) écrit un nouveau fichier à côté puis le substitue par un renommage atomique.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WheelCatalogService {
+    static final String RESSOURCE_EMBARQUEE = "wheels/catalogue.bin";
+
+    private final CoveringDesignService coveringDesignService;
+    private final WheelVerifierService wheelVerifierService;
+
+    @Value("${loto.wheeling.catalogue:data/wheels.bin}")
+    private String cheminCatalogue = "data/wheels.bin";
+
+    @Value("${loto.wheeling.budget-ms:2000}")
+    private long budgetParSystemeMs = 2000;
+
+    private volatile WheelCatalog catalogue;
+    // Vérifications des systèmes du catalogue courant, par emplacement (vidé à chaque substitution)
+    private final Map<Integer, WheelVerificationDto> verifications = new ConcurrentHashMap<>();
+    private static final LotoMetrics.CacheCounter CACHE_VERIFICATIONS = LotoMetrics.cache("wheels.verifications");
+    private final ReentrantLock regeneration = new ReentrantLock();
+
+    @PostConstruct
+    public void charger() {
+        Path fichier = Path.of(cheminCatalogue);
+        if (Files.isRegularFile(fichier)) {
+            try {
+                catalogue = WheelCatalog.ouvrir(fichier);
+                log.info("🧩 [WHEELING] Catalogue {} projeté en mémoire (généré le {}).",
+                        fichier.toAbsolutePath(), Instant.ofEpochMilli(catalogue.dateGeneration()));
+                return;
+            } catch (IOException | IllegalStateException e) {
+                log.error("❌ [WHEELING] Catalogue {} illisible, repli sur le catalogue embarqué.", fichier, e);
+            }
+        }
+        try (InputStream in = new ClassPathResource(RESSOURCE_EMBARQUEE).getInputStream()) {
+            catalogue = WheelCatalog.lire(ByteBuffer.wrap(in.readAllBytes()));
+            log.info("🧩 [WHEELING] Catalogue embarqué chargé (généré le {}).", Instant.ofEpochMilli(catalogue.dateGeneration()));
+        } catch (IOException | IllegalStateException e) {
+            log.error("❌ [WHEELING] Aucun catalogue de systèmes réducteurs disponible.", e);
+        }
+    }
+
+    /**
+     * Système réducteur C(v, 5, t, m) du catalogue
+     * @return grilles (5 index de 1 à v triés), null si absent
+     */
+    public int[][] systeme(int v, int t, int m) {
+        WheelCatalog c = catalogue;
+        return (c == null) ? null : c.systeme(v, t, m);
+    }
+
+    /**
+     * Vérification exhaustive (mise en cache) d'un système du catalogue
+     * @return vérification, null si le système est absent
+     */
+    public WheelVerificationDto verification(int v, int t, int m) {
+        int e = WheelCatalog.emplacement(v, t, m);
+        if (e < 0) return null;
+        WheelVerificationDto connue = verifications.get(e);
+        if (connue != null) {
+            CACHE_VERIFICATIONS.hit();
+            return connue;
+        }
+        CACHE_VERIFICATIONS.miss();
+        return verifications.computeIfAbsent(e, c -> {
+            int[][] systeme = systeme(v, t, m);
+            return (systeme == null) ? null : wheelVerifierService.verifier(v, systeme);
+        });
+    }
+
+    /**
+     * @return true si une régénération est en cours sur cette instance
+     */
+    public boolean regenerationEnCours() {
+        return regeneration.isLocked();
+    }
+
+    /**
+     * Recalcule tous les systèmes supportés (budget de recherche configuré par système), garde pour chacun
+     * le plus petit entre l'ancien catalogue et le nouveau calcul, puis remplace le fichier de façon atomique.
+     * @return nombre de systèmes améliorés
+     * @throws IllegalStateException si une régénération est déjà en cours
+     */
+    public int regenerer() throws IOException {
+        if (!regeneration.tryLock()) {
+            throw new IllegalStateException("Régénération du catalogue déjà en cours");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int[][][] systemes = calculerSystemes(catalogue, Duration.ofMillis(budgetParSystemeMs));
+            int ameliores = systemes.length;
+            for (int[][] s : systemes) {
+                if (s == null) ameliores--;
+            }
+            completerAvecAncien(systemes, catalogue);
+
+            Path fichier = Path.of(cheminCatalogue).toAbsolutePath();
+            Files.createDirectories(fichier.getParent());
+            // Fichier temporaire dans le même répertoire : le renommage reste atomique (même système de fichiers)
+            Path temporaire = Files.createTempFile(fichier.getParent(), fichier.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temporaire)) {
+                    WheelCatalog.ecrire(out, systemes, System.currentTimeMillis());
+                }
+                WheelCatalog.ouvrir(temporaire); // Relecture avant de publier
+                Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporaire);
+            }
+
+            catalogue = WheelCatalog.ouvrir(fichier);
+            verifications.clear();
+            log.info("🧩 [WHEELING] Catalogue régénéré en {} ms : {} système(s) amélioré(s).",
+                    System.currentTimeMillis() - start, ameliores);
+            return ameliores;
+        } finally {
+            regeneration.unlock();
+        }
+    }
+
+    /**
+     * Calcul de tous les systèmes supportés
+     * @param actuel catalogue actuel (peut être null)
+     * @return systèmes par emplacement, null là où le calcul ne fait pas mieux que le catalogue actuel
+     * (ou n'apporte pas la garantie annoncée)
+     */
+    int[][][] calculerSystemes(WheelCatalog actuel, Duration budget) {
+        int[][][] systemes = new int[WheelCatalog.NB_EMPLACEMENTS][][];
+        for (int v = WheelCatalog.V_MIN; v <= WheelCatalog.V_MAX; v++) {
+            for (int m = 1; m <= WheelCatalog.K; m++) {
+                for (int t = 1; t <= m; t++) {
+                    int[][] calcule = coveringDesignService.calculer(v, WheelCatalog.K, t, m, budget);
+                    int tailleActuelle = (actuel == null) ? 0 : actuel.taille(v, t, m);
+                    if (!wheelVerifierService.verifier(v, calcule).garantit(t, m)) {
+                        log.error("❌ [WHEELING] Système C({},5,{},{}) calculé sans la garantie annoncée, ignoré.", v, t, m);
+                    } else if (tailleActuelle == 0 || calcule.length < tailleActuelle) {
+                        systemes[WheelCatalog.emplacement(v, t, m)] = calcule;
+                    }
+                }
+            }
+        }
+        return systemes;
+    }
+
+    private static void completerAvecAncien(int[][][] systemes, WheelCatalog actuel) {
+        if (actuel == null) return;
+        for (int v = WheelCatalog.V_MIN; v <= WheelCatalog.V_MAX; v++) {
+            for (int m = 1; m <= WheelCatalog.K; m++) {
+                for (int t = 1; t <= m; t++) {
+                    int e = WheelCatalog.emplacement(v, t, m);
+                    if (systemes[e] == null) systemes[e] = actuel.systeme(v, t, m);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.WheelVerificationDto;
+import com.analyseloto.loto.util.GridMask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Vérification exhaustive de la garantie d'un système réducteur.
+ * Chaque sous-ensemble de 1 à 5 numéros de la piscine (masque sur v bits) est confronté à toutes les grilles par popcount ;
+ * on retient sa meilleure intersection. L'espace [0, 2^v) est découpé en paquets évalués en parallèle (fork-join).
+ */
+@Slf4j
+@Service
+public class WheelVerifierService {
+    public static final int K = 5;
+    // En dessous de ce nombre de masques, un paquet est évalué séquentiellement
+    private static final int SEUIL_PAQUET = 1 << 14;
+
+    private final ForkJoinPool calculPool;
+
+    public WheelVerifierService(ForkJoinPool calculPool) {
+        this.calculPool = calculPool;
+    }
+
+    /**
+     * Vérification d'un système exprimé en index de la piscine
+     * @param v taille de la piscine (6 à 20)
+     * @param grilles grilles, index de 1 à v
+     * @return garantie exacte par nombre de numéros sortis, couverture des garanties plus faibles
+     */
+    public WheelVerificationDto verifier(int v, int[][] grilles) {
+        if (v < CoveringDesignService.V_MIN || v > CoveringDesignService.V_MAX) {
+            throw new IllegalArgumentException("Piscine de " + v + " numéros non supportée ("
+                    + CoveringDesignService.V_MIN + " à " + CoveringDesignService.V_MAX + ")");
+        }
+        long start = System.currentTimeMillis();
+        int[] blocs = new int[grilles.length];
+        for (int g = 0; g < grilles.length; g++) {
+            for (int index : grilles[g]) {
+                if (index < 1 || index > v) throw new IllegalArgumentException("Index " + index + " hors piscine (1 à " + v + ")");
+                blocs[g] |= 1 << (index - 1);
+            }
+        }
+
+        // histogramme[m][b] = nombre de m-sous-ensembles dont la meilleure intersection avec une grille vaut b
+        long[][] histogramme = calculPool.invoke(new PaquetMasques(blocs, 1, 1 << v));
+
+        int[] garanties = new int[K + 1];
+        double[][] couverture = new double[K + 1][K + 1];
+        for (int m = 1; m <= K; m++) {
+            long total = 0;
+            for (long n : histogramme[m]) total += n;
+            // La plus petite "meilleure intersection" est la garantie exacte : tout t inférieur ou égal est couvert à 100 %
+            int garantie = 0;
+            while (garantie < m && histogramme[m][garantie] == 0) garantie++;
+            garanties[m] = garantie;
+
+            long couverts = 0;
+            for (int t = m; t >= 1; t--) {
+                couverts += histogramme[m][t];
+                couverture[m][t] = (total == 0) ? 0.0 : Math.round(couverts * 10_000.0 / total) / 100.0;
+            }
+        }
+
+        long duree = System.currentTimeMillis() - start;
+        log.debug("🔎 [WHEELING] Vérification piscine {} / {} grilles en {} ms.", v, grilles.length, duree);
+        return new WheelVerificationDto(v, grilles.length, duree, garanties, couverture);
+    }
+
+    /**
+     * Vérification d'un système candidat exprimé en numéros : la piscine est l'union des numéros joués
+     * @param grilles grilles de 5 numéros entre 1 et 49
+     */
+    public WheelVerificationDto verifierGrilles(List<List<Integer>> grilles) {
+        TreeSet<Integer> piscine = new TreeSet<>();
+        for (List<Integer> grille : grilles) {
+            if (grille == null || grille.size() != K || Long.bitCount(GridMask.of(grille)) != K) {
+                throw new IllegalArgumentException("Chaque grille doit compter " + K + " numéros distincts entre 1 et 49");
+            }
+            piscine.addAll(grille);
+        }
+        List<Integer> numeros = List.copyOf(piscine);
+
+        int[][] index = new int[grilles.size()][K];
+        for (int g = 0; g < grilles.size(); g++) {
+            for (int i = 0; i < K; i++) index[g][i] = numeros.indexOf(grilles.get(g).get(i)) + 1;
+        }
+        return verifier(numeros.size(), index);
+    }
+
+    private static final class PaquetMasques extends RecursiveTask<long[][]> {
+        private final transient int[] blocs;
+        private final int debut;
+        private final int fin;
+
+        PaquetMasques(int[] blocs, int debut, int fin) {
+            this.blocs = blocs;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (fin - debut <= SEUIL_PAQUET) {
+                long[][] histogramme = new long[K + 1][K + 1];
+                for (int cible = debut; cible < fin; cible++) {
+                    int m = Integer.bitCount(cible);
+                    if (m > K) continue;
+                    int meilleure = 0;
+                    for (int bloc : blocs) {
+                        int communs = Integer.bitCount(bloc & cible);
+                        if (communs > meilleure) {
+                            meilleure = communs;
+                            if (meilleure == m) break;
+                        }
+                    }
+                    histogramme[m][meilleure]++;
+                }
+                return histogramme;
+            }
+            int milieu = (debut + fin) >>> 1;
+            PaquetMasques droite = new PaquetMasques(blocs, milieu, fin);
+            droite.fork();
+            long[][] histogramme = new PaquetMasques(blocs, debut, milieu).compute();
+            long[][] autre = droite.join();
+            for (int m = 0; m <= K; m++) {
+                for (int b = 0; b <= K; b++) histogramme[m][b] += autre[m][b];
+            }
+            return histogramme;
+        }
+    }
+}
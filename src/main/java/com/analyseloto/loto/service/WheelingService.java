@@ -1,31 +1,78 @@
 package com.analyseloto.loto.service;
 
+import com.analyseloto.loto.dto.WheelVerificationDto;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class WheelingService {
+    private final WheelCatalogService wheelCatalogService;
+    private final CoveringDesignService coveringDesignService;
+    private final WheelVerifierService wheelVerifierService;
 
     /**
-     * Génère un système réducteur optimal basé sur un Block Design pré-calculé.
-     * * @param pool Les N numéros sélectionnés par l'IA (Value maximale).
+     * Génère un système réducteur à partir du catalogue pré-calculé.
+     * * @param pool Les N numéros sélectionnés par l'IA (Value maximale), 6 à 20.
      * @param garantie Le type de garantie souhaitée (ex: 3 pour "Garantie 3 si 3").
      * @return La liste exacte et optimisée des grilles à valider.
      */
     public List<int[]> genererSystemeReducteur(List<Integer> pool, int garantie) {
-        if (pool.size() == 10 && garantie == 3) {
-            return appliquerMatrice(pool, getMatriceV10_K5_T3_M3());
-        } else if (pool.size() == 12 && garantie == 3) {
-            return appliquerMatrice(pool, getMatriceV12_K5_T3_M3());
+        int[][] matrice = wheelCatalogService.systeme(pool.size(), garantie, garantie);
+        if (matrice == null) {
+            // Catalogue absent ou incomplet : construction gloutonne seule (pas de recuit sur le chemin de la requête).
+            // Lève IllegalArgumentException si la piscine sort de 6 à 20 numéros.
+            log.warn("Système {}/{} absent du catalogue pour une Pool de taille {}. Construction gloutonne.", garantie, garantie, pool.size());
+            matrice = coveringDesignService.obtenir(pool.size(), garantie, garantie, Duration.ZERO);
         }
+        return appliquerMatrice(pool, matrice);
+    }
+
+    /**
+     * Libellé de la garantie réellement apportée par le système servi pour cette taille de piscine
+     * (vérification exhaustive, pas seulement la garantie visée)
+     * @param v taille de la piscine
+     * @param garantie garantie visée (t = m)
+     * @return libellé, ex : "SYSTÈME RÉDUCTEUR (Garantie 3/3)"
+     */
+    public String libelleGarantie(int v, int garantie) {
+        WheelVerificationDto verification = wheelCatalogService.verification(v, garantie, garantie);
+        if (verification == null) {
+            return "SYSTÈME GLOUTON (Garantie " + garantie + "/" + garantie + ")";
+        }
+        return libelle("SYSTÈME RÉDUCTEUR", verification, garantie);
+    }
+
+    /**
+     * Libellé d'une partie seulement d'un système (grilles servies) : la garantie du système complet ne tient plus,
+     * la couverture réelle des grilles servies est vérifiée sur toute la piscine
+     * @param piscine numéros de la piscine du système complet
+     * @param nombreGrillesSysteme nombre de grilles du système complet
+     * @param grilles grilles servies (numéros de la piscine)
+     * @param garantie garantie visée (t = m)
+     * @return libellé, ex : "SYSTÈME PARTIEL 5/17 (34.17% des 3/3)"
+     */
+    public String libelleSousSysteme(List<Integer> piscine, int nombreGrillesSysteme, List<List<Integer>> grilles, int garantie) {
+        List<Integer> numeros = piscine.stream().sorted().toList();
+        int[][] index = new int[grilles.size()][];
+        for (int g = 0; g < grilles.size(); g++) {
+            index[g] = grilles.get(g).stream().mapToInt(n -> numeros.indexOf(n) + 1).toArray();
+        }
+        WheelVerificationDto verification = wheelVerifierService.verifier(numeros.size(), index);
+        return libelle("SYSTÈME PARTIEL " + grilles.size() + "/" + nombreGrillesSysteme, verification, garantie);
+    }
 
-        // Fallback de sécurité si la taille de la pool ne correspond pas à une matrice connue
-        log.warn("Aucune matrice stricte trouvée pour Pool de taille {} et Garantie {}. Retour à une matrice standard V10.", pool.size(), garantie);
-        return appliquerMatrice(pool.subList(0, Math.min(10, pool.size())), getMatriceV10_K5_T3_M3());
+    private static String libelle(String systeme, WheelVerificationDto verification, int garantie) {
+        if (verification.garantit(garantie, garantie)) {
+            return systeme + " (Garantie " + garantie + "/" + garantie + ")";
+        }
+        return systeme + " (" + verification.getCouverture()[garantie][garantie] + "% des " + garantie + "/" + garantie + ")";
     }
 
     /**
@@ -45,49 +92,4 @@ public class WheelingService {
 
         return grillesGenerees;
     }
-
-    /**
-     * Matrice de Combinatoire : V=10, K=5, T=3, M=3
-     * 10 Numéros joués. Grilles de 5.
-     * Garantie 100% de gagner un "3 bons numéros" si 3 des 10 numéros sortent au tirage.
-     * Coût optimal : 8 Grilles (17.60€)
-     */
-    private int[][] getMatriceV10_K5_T3_M3() {
-        return new int[][] {
-                {1, 2, 3, 4, 5},
-                {1, 2, 6, 7, 8},
-                {1, 3, 6, 9, 10},
-                {1, 4, 7, 9, 10},
-                {1, 5, 8, 9, 10},
-                {2, 3, 7, 8, 10},
-                {2, 4, 5, 9, 10},
-                {3, 4, 5, 6, 8}
-        };
-    }
-
-    /**
-     * Matrice de Combinatoire : V=12, K=5, T=3, M=3
-     * 12 Numéros joués. Grilles de 5.
-     * Garantie 100% de gagner un "3 bons numéros" si 3 des 12 numéros sortent au tirage.
-     * Coût optimal : 15 Grilles (33.00€) - Très utilisé par les syndicats
-     */
-    private int[][] getMatriceV12_K5_T3_M3() {
-        return new int[][] {
-                {1, 2, 3, 4, 5},
-                {1, 6, 7, 8, 9},
-                {1, 10, 11, 12, 2},
-                {2, 3, 6, 7, 10},
-                {2, 4, 8, 11, 12},
-                {3, 4, 6, 9, 12},
-                {3, 5, 7, 8, 11},
-                {4, 5, 7, 9, 10},
-                {5, 6, 8, 10, 12},
-                {1, 3, 8, 9, 10},
-                {1, 4, 6, 7, 11},
-                {2, 5, 6, 9, 11},
-                {2, 5, 7, 8, 12},
-                {3, 4, 7, 8, 12},
-                {4, 6, 8, 10, 11}
-        };
-    }
 }
@@ -0,0 +1,97 @@
+package com.analyseloto.loto.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Représentation d'une grille (ou d'un tirage) sous forme de masque 64 bits : bit n = boule n.
+ * Le nombre de numéros communs entre deux grilles devient un simple Long.bitCount(a & b).
+ */
+public final class GridMask {
+    public static final int BOULE_MIN = 1;
+    public static final int BOULE_MAX = 49;
+
+    private GridMask() {
+    }
+
+    /**
+     * Masque d'une liste de boules (les valeurs hors 1-49 sont ignorées)
+     * @param boules boules
+     * @return masque
+     */
+    public static long of(int... boules) {
+        long masque = 0L;
+        for (int b : boules) {
+            if (b >= BOULE_MIN && b <= BOULE_MAX) masque |= 1L << b;
+        }
+        return masque;
+    }
+
+    /**
+     * Masque d'une liste de boules (les valeurs nulles ou hors 1-49 sont ignorées)
+     * @param boules boules
+     * @return masque
+     */
+    public static long of(List<Integer> boules) {
+        long masque = 0L;
+        for (Integer b : boules) {
+            if (b != null && b >= BOULE_MIN && b <= BOULE_MAX) masque |= 1L << b;
+        }
+        return masque;
+    }
+
+    /**
+     * Masque d'une grille de 5 boules pouvant être incomplète (ex : Code Loto)
+     * @return masque, ou 0 si une des boules est absente
+     */
+    public static long of(Integer b1, Integer b2, Integer b3, Integer b4, Integer b5) {
+        if (b1 == null || b2 == null || b3 == null || b4 == null || b5 == null) return 0L;
+        // Tableau explicite : avec 5 int, la résolution de surcharge rappellerait cette méthode (boxing)
+        return of(new int[]{b1, b2, b3, b4, b5});
+    }
+
+    /**
+     * Nombre de numéros communs entre deux masques
+     */
+    public static int communs(long a, long b) {
+        return Long.bitCount(a & b);
+    }
+
+    /**
+     * Nombre de numéros contenus dans le masque
+     */
+    public static int taille(long masque) {
+        return Long.bitCount(masque);
+    }
+
+    public static boolean contient(long masque, int boule) {
+        return boule >= BOULE_MIN && boule <= BOULE_MAX && (masque & (1L << boule)) != 0;
+    }
+
+    /**
+     * Boules du masque, triées par ordre croissant
+     */
+    public static int[] toArray(long masque) {
+        int[] boules = new int[Long.bitCount(masque)];
+        int i = 0;
+        long reste = masque;
+        while (reste != 0) {
+            boules[i++] = Long.numberOfTrailingZeros(reste);
+            reste &= reste - 1;
+        }
+        return boules;
+    }
+
+    /**
+     * Boules du masque, triées par ordre croissant
+     */
+    public static List<Integer> toList(long masque) {
+        List<Integer> boules = new ArrayList<>(Long.bitCount(masque));
+        long reste = masque;
+        while (reste != 0) {
+            boules.add(Long.numberOfTrailingZeros(reste));
+            reste &= reste - 1;
+        }
+        return boules;
+    }
+}
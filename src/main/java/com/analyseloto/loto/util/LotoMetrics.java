@@ -0,0 +1,94 @@
+package com.analyseloto.loto.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métriques applicatives (Micrometer), enregistrées dans le registre global : Spring Boot y rattache le registre
+ * Prometheus au démarrage (/actuator/prometheus). Hors contexte Spring (benchmarks JMH), elles ne coûtent rien.
+ */
+public final class LotoMetrics {
+
+    private LotoMetrics() {
+    }
+
+    /**
+     * Durée d'une étape du pipeline de génération (ia, piscine, wheeling, chance, simulation, dto)
+     */
+    public static Timer etapeGeneration(String etape) {
+        return Timer.builder("loto.generation.etape")
+                .description("Durée d'une étape de la génération des pronostics")
+                .tag("etape", etape)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Durée totale d'un calcul de pronostics (hors cache), avec histogramme pour les percentiles
+     */
+    public static Timer generation() {
+        return Timer.builder("loto.generation")
+                .description("Durée d'un calcul complet de pronostics")
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    public static Counter compteur(String nom, String description, String... tags) {
+        return Counter.builder(nom).description(description).tags(tags).register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Nombre de tâches en attente dans la file d'un pool de threads
+     * @param pool nom du pool
+     * @param executor pool observé (référence faible, comme toute jauge Micrometer)
+     * @param taille lecture de la taille de la file
+     */
+    public static <T> void fileAttente(String pool, T executor, ToDoubleFunction<T> taille) {
+        Gauge.builder("loto.executor.file", executor, taille)
+                .description("Tâches en attente dans la file d'un pool")
+                .tag("pool", pool)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Nombre de mails de la file d'envoi dans un statut (en attente, échec définitif)
+     * @param statut statut compté
+     * @param valeur dernière valeur relevée
+     */
+    public static void fileEnvoi(String statut, AtomicLong valeur) {
+        Gauge.builder("loto.mail.outbox", valeur, AtomicLong::get)
+                .description("Mails de la file d'envoi par statut")
+                .tag("statut", statut)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Compteurs succès / défaut d'un cache applicatif
+     * @param cache nom du cache
+     */
+    public static CacheCounter cache(String cache) {
+        return new CacheCounter(cache);
+    }
+
+    public static final class CacheCounter {
+        private final Counter hits;
+        private final Counter misses;
+
+        private CacheCounter(String cache) {
+            this.hits = compteur("loto.cache.gets", "Lectures d'un cache applicatif", "cache", cache, "result", "hit");
+            this.misses = compteur("loto.cache.gets", "Lectures d'un cache applicatif", "cache", cache, "result", "miss");
+        }
+
+        public void hit() {
+            hits.increment();
+        }
+
+        public void miss() {
+            misses.increment();
+        }
+    }
+}
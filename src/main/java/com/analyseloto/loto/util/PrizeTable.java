@@ -0,0 +1,79 @@
+package com.analyseloto.loto.util;
+
+import com.analyseloto.loto.entity.LotoTirage;
+import com.analyseloto.loto.entity.LotoTirageRank;
+
+/**
+ * Table des gains d'un tirage : 10 cases indexées par rang (0 = perdant, 1 = jackpot ... 9 = 0 ou 1 bon numéro + numéro chance).
+ * Construite une seule fois par tirage, le classement d'une grille ne fait ensuite qu'un popcount.
+ */
+public final class PrizeTable {
+    public static final int NB_RANGS = 10;
+    // Remboursement de la mise quand la FDJ n'a pas (encore) publié les rapports
+    private static final double GAIN_RANG_9_PAR_DEFAUT = 2.20;
+
+    private final long masqueTirage;
+    private final int chanceTirage;
+    private final double[] gains;
+
+    private PrizeTable(long masqueTirage, int chanceTirage, double[] gains) {
+        this.masqueTirage = masqueTirage;
+        this.chanceTirage = chanceTirage;
+        this.gains = gains;
+    }
+
+    /**
+     * Table des gains à partir des rapports officiels du tirage
+     * @param tirage tirage (les rangs doivent être chargés)
+     * @return table
+     */
+    public static PrizeTable of(LotoTirage tirage) {
+        double[] gains = new double[NB_RANGS];
+        gains[9] = GAIN_RANG_9_PAR_DEFAUT;
+        if (tirage.getRanks() != null && !tirage.getRanks().isEmpty()) {
+            // Rapports publiés : un rang absent ne rapporte rien, sauf le rang 9 (mise remboursée)
+            boolean[] trouve = new boolean[NB_RANGS];
+            for (LotoTirageRank r : tirage.getRanks()) {
+                int rang = r.getRankNumber();
+                if (rang >= 1 && rang < NB_RANGS && !trouve[rang]) {
+                    gains[rang] = r.getPrize();
+                    trouve[rang] = true;
+                }
+            }
+        }
+        return new PrizeTable(tirage.getMasque(), tirage.getNumeroChance(), gains);
+    }
+
+    /**
+     * Rang d'une grille
+     * @param masqueJoue masque des boules jouées (voir GridMask)
+     * @param chanceJouee numéro chance joué (peut être null)
+     * @return rang de 1 à 9, 0 si perdant
+     */
+    public int rang(long masqueJoue, Integer chanceJouee) {
+        int matches = Long.bitCount(masqueJoue & masqueTirage);
+        boolean chanceMatch = chanceJouee != null && chanceJouee == chanceTirage;
+        return switch (matches) {
+            case 5 -> chanceMatch ? 1 : 2;
+            case 4 -> chanceMatch ? 3 : 4;
+            case 3 -> chanceMatch ? 5 : 6;
+            case 2 -> chanceMatch ? 7 : 8;
+            // Moins de 2 bons numéros : seul le numéro chance rapporte (mise remboursée)
+            default -> chanceMatch ? 9 : 0;
+        };
+    }
+
+    /**
+     * Gain d'une grille
+     * @param masqueJoue masque des boules jouées (voir GridMask)
+     * @param chanceJouee numéro chance joué (peut être null)
+     * @return gain (0 si perdant)
+     */
+    public double gain(long masqueJoue, Integer chanceJouee) {
+        return gains[rang(masqueJoue, chanceJouee)];
+    }
+
+    public double gainRang(int rang) {
+        return gains[rang];
+    }
+}
@@ -0,0 +1,163 @@
+package com.analyseloto.loto.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Catalogue binaire des systèmes réducteurs C(v, 5, t, m) pré-calculés, lu sans copie (fichier projeté en mémoire).
+ * <pre>
+ * En-tête   : MAGIC, VERSION, V_MIN, V_MAX, K (int), date de génération (long, epoch ms)
+ * Répertoire: une case (début, nombre de grilles) par triplet (v, t, m), nombre = 0 si absent
+ * Grilles   : un int par grille, 5 index de 1 à v sur 5 bits chacun (index i dans les bits 5i à 5i+4)
+ * </pre>
+ * Une recherche ne fait qu'un calcul de case et deux lectures d'int.
+ */
+public final class WheelCatalog {
+    public static final int MAGIC = 0x57484C31; // "WHL1"
+    public static final int VERSION = 1;
+    public static final int V_MIN = 6;
+    public static final int V_MAX = 20;
+    public static final int K = 5;
+    public static final int NB_EMPLACEMENTS = (V_MAX - V_MIN + 1) * K * K;
+
+    private static final int BITS_INDEX = 5;
+    private static final int TAILLE_EN_TETE = 5 * Integer.BYTES + Long.BYTES;
+    private static final int DEBUT_GRILLES = TAILLE_EN_TETE + NB_EMPLACEMENTS * 2 * Integer.BYTES;
+
+    private final ByteBuffer donnees;
+
+    private WheelCatalog(ByteBuffer donnees) {
+        this.donnees = donnees;
+    }
+
+    /**
+     * Projection en mémoire (lecture seule) d'un fichier catalogue
+     * @param fichier fichier
+     * @return catalogue
+     * @throws IOException fichier illisible
+     * @throws IllegalStateException fichier qui n'est pas un catalogue valide
+     */
+    public static WheelCatalog ouvrir(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            // La projection reste valide après fermeture du canal
+            return lire(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+        }
+    }
+
+    /**
+     * Catalogue à partir d'un contenu déjà en mémoire (ressource embarquée)
+     * @param donnees contenu
+     * @return catalogue
+     * @throws IllegalStateException contenu qui n'est pas un catalogue valide
+     */
+    public static WheelCatalog lire(ByteBuffer donnees) {
+        ByteBuffer buffer = donnees.asReadOnlyBuffer();
+        if (buffer.capacity() < DEBUT_GRILLES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != V_MIN || buffer.getInt(12) != V_MAX || buffer.getInt(16) != K) {
+            throw new IllegalStateException("Catalogue de systèmes réducteurs invalide ou d'une autre version");
+        }
+        WheelCatalog catalogue = new WheelCatalog(buffer);
+        for (int e = 0; e < NB_EMPLACEMENTS; e++) {
+            long fin = (long) catalogue.debut(e) + catalogue.nombre(e);
+            if (catalogue.debut(e) < 0 || catalogue.nombre(e) < 0 || DEBUT_GRILLES + fin * Integer.BYTES > buffer.capacity()) {
+                throw new IllegalStateException("Catalogue de systèmes réducteurs tronqué");
+            }
+        }
+        return catalogue;
+    }
+
+    /**
+     * Case du répertoire d'un triplet (v, t, m)
+     * @return case, -1 si le triplet n'est pas supporté
+     */
+    public static int emplacement(int v, int t, int m) {
+        if (v < V_MIN || v > V_MAX || t < 1 || t > m || m > K || m > v) return -1;
+        return ((v - V_MIN) * K + (t - 1)) * K + (m - 1);
+    }
+
+    /**
+     * Système réducteur C(v, 5, t, m)
+     * @return grilles (5 index de 1 à v triés), null si absent du catalogue
+     */
+    public int[][] systeme(int v, int t, int m) {
+        int e = emplacement(v, t, m);
+        if (e < 0 || nombre(e) == 0) return null;
+
+        int debut = debut(e);
+        int[][] grilles = new int[nombre(e)][];
+        for (int g = 0; g < grilles.length; g++) {
+            grilles[g] = depaqueter(donnees.getInt(DEBUT_GRILLES + (debut + g) * Integer.BYTES));
+        }
+        return grilles;
+    }
+
+    /**
+     * Nombre de grilles du système C(v, 5, t, m), 0 si absent
+     */
+    public int taille(int v, int t, int m) {
+        int e = emplacement(v, t, m);
+        return (e < 0) ? 0 : nombre(e);
+    }
+
+    public long dateGeneration() {
+        return donnees.getLong(20);
+    }
+
+    /**
+     * Écriture d'un catalogue
+     * @param sortie flux de sortie (non fermé)
+     * @param systemes systèmes indexés par emplacement(v, t, m), null si absent
+     * @param dateGeneration date de génération (epoch ms)
+     */
+    public static void ecrire(OutputStream sortie, int[][][] systemes, long dateGeneration) throws IOException {
+        if (systemes.length != NB_EMPLACEMENTS) {
+            throw new IllegalArgumentException("Il faut " + NB_EMPLACEMENTS + " emplacements");
+        }
+        DataOutputStream out = new DataOutputStream(sortie);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(V_MIN);
+        out.writeInt(V_MAX);
+        out.writeInt(K);
+        out.writeLong(dateGeneration);
+
+        int debut = 0;
+        for (int[][] systeme : systemes) {
+            int nombre = (systeme == null) ? 0 : systeme.length;
+            out.writeInt(debut);
+            out.writeInt(nombre);
+            debut += nombre;
+        }
+        for (int[][] systeme : systemes) {
+            if (systeme == null) continue;
+            for (int[] grille : systeme) out.writeInt(paqueter(grille));
+        }
+        out.flush();
+    }
+
+    private int debut(int emplacement) {
+        return donnees.getInt(TAILLE_EN_TETE + emplacement * 2 * Integer.BYTES);
+    }
+
+    private int nombre(int emplacement) {
+        return donnees.getInt(TAILLE_EN_TETE + emplacement * 2 * Integer.BYTES + Integer.BYTES);
+    }
+
+    private static int paqueter(int[] grille) {
+        if (grille.length != K) throw new IllegalArgumentException("Une grille compte " + K + " index");
+        int ligne = 0;
+        for (int i = 0; i < K; i++) ligne |= grille[i] << (BITS_INDEX * i);
+        return ligne;
+    }
+
+    private static int[] depaqueter(int ligne) {
+        int[] grille = new int[K];
+        for (int i = 0; i < K; i++) grille[i] = (ligne >>> (BITS_INDEX * i)) & ((1 << BITS_INDEX) - 1);
+        return grille;
+    }
+}
@@ -0,0 +1,23 @@
+-- V10 : Statistiques de jeu par joueur, tenues à jour à chaque grille ajoutée / supprimée / réglée
+-- On utilise IF NOT EXISTS pour ne pas planter si la table est déjà là
+
+CREATE TABLE IF NOT EXISTS user_play_stats (
+    user_id            BIGINT PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    nb_paris           INTEGER          NOT NULL DEFAULT 0,
+    nb_grilles         INTEGER          NOT NULL DEFAULT 0,
+    somme_boules       BIGINT           NOT NULL DEFAULT 0,
+    nb_pairs           INTEGER          NOT NULL DEFAULT 0,
+    frequences_boules  INTEGER[]        NOT NULL,
+    frequences_chance  INTEGER[]        NOT NULL,
+    nb_jeux_lundi      INTEGER          NOT NULL DEFAULT 0,
+    depense_lundi      DOUBLE PRECISION NOT NULL DEFAULT 0,
+    gains_lundi        DOUBLE PRECISION NOT NULL DEFAULT 0,
+    nb_jeux_mercredi   INTEGER          NOT NULL DEFAULT 0,
+    depense_mercredi   DOUBLE PRECISION NOT NULL DEFAULT 0,
+    gains_mercredi     DOUBLE PRECISION NOT NULL DEFAULT 0,
+    nb_jeux_samedi     INTEGER          NOT NULL DEFAULT 0,
+    depense_samedi     DOUBLE PRECISION NOT NULL DEFAULT 0,
+    gains_samedi       DOUBLE PRECISION NOT NULL DEFAULT 0
+);
+
+-- Les lignes manquantes (joueurs existants) sont reconstruites à la première consultation ou par le job hebdomadaire
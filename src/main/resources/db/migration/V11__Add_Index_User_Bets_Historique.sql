@@ -0,0 +1,5 @@
+-- V11 : Index de l'historique des grilles d'un joueur (pagination par clé, plus récentes d'abord)
+-- On utilise IF NOT EXISTS pour ne pas planter si l'index est déjà là
+
+-- Vital pour "WHERE user_id = ? AND (date_jeu, id) < (?, ?) ORDER BY date_jeu DESC, id DESC LIMIT n"
+CREATE INDEX IF NOT EXISTS idx_user_bets_historique ON user_bets (user_id, date_jeu DESC, id DESC);
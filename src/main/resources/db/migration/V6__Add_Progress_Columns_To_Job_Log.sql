@@ -0,0 +1,14 @@
+-- V6 : Suivi de progression des jobs de traitement en masse (envoi des mails)
+-- On utilise IF NOT EXISTS pour ne pas planter si la colonne est déjà là
+
+ALTER TABLE job_log
+    ADD COLUMN IF NOT EXISTS elements_total INTEGER;
+
+ALTER TABLE job_log
+    ADD COLUMN IF NOT EXISTS elements_traites INTEGER;
+
+ALTER TABLE job_log
+    ADD COLUMN IF NOT EXISTS elements_en_echec INTEGER;
+
+ALTER TABLE job_log
+    ADD COLUMN IF NOT EXISTS debit_par_seconde DOUBLE PRECISION;
@@ -0,0 +1,18 @@
+-- V7 : File d'envoi des emails (outbox), vidée par lots par l'expéditeur SMTP
+-- On utilise IF NOT EXISTS pour ne pas planter si la table est déjà là
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id               BIGSERIAL PRIMARY KEY,
+    destinataire     VARCHAR(255) NOT NULL,
+    objet            VARCHAR(255) NOT NULL,
+    contenu          TEXT         NOT NULL,
+    statut           VARCHAR(20)  NOT NULL,
+    tentatives       INTEGER      NOT NULL DEFAULT 0,
+    prochain_essai   TIMESTAMP    NOT NULL,
+    date_creation    TIMESTAMP,
+    date_envoi       TIMESTAMP,
+    derniere_erreur  VARCHAR(1000)
+);
+
+-- Lecture du lot suivant : "WHERE statut = 'EN_ATTENTE' AND prochain_essai <= now() ORDER BY id"
+CREATE INDEX IF NOT EXISTS idx_email_outbox_a_envoyer ON email_outbox (statut, prochain_essai);
@@ -0,0 +1,5 @@
+-- V8 : Point de reprise des jobs parcourant les utilisateurs par lots (id du dernier utilisateur traité)
+-- On utilise IF NOT EXISTS pour ne pas planter si la colonne est déjà là
+
+ALTER TABLE job_log
+    ADD COLUMN IF NOT EXISTS dernier_id_traite BIGINT;
@@ -0,0 +1,10 @@
+-- V9 : Baux des jobs planifiés (une seule instance exécute un job donné, même avec plusieurs réplicas)
+-- On utilise IF NOT EXISTS pour ne pas planter si la table est déjà là
+
+CREATE TABLE IF NOT EXISTS job_lease (
+    nom                VARCHAR(100) PRIMARY KEY,
+    proprietaire       VARCHAR(255),
+    expire_le          TIMESTAMP    NOT NULL,
+    acquis_le          TIMESTAMP,
+    dernier_battement  TIMESTAMP
+);
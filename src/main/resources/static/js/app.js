@@ -337,26 +337,56 @@ document.addEventListener('DOMContentLoaded', () => {
         });
     }
 
-    // --- DATATABLES & EXPORTS (Pour l'historique) ---
-    if($.fn.DataTable && document.getElementById('betsTable')) {
-        const table = $('#betsTable').DataTable({
-            "language": { "url": "//cdn.datatables.net/plug-ins/1.13.6/i18n/fr-FR.json" },
-            "order": [[ 0, "desc" ]],
-            "pageLength": 5,
-            "dom": 'rt<"d-flex justify-content-between mt-3"lp>'
-        });
+    // --- HISTORIQUE DES GRILLES : défilement infini & export ---
+    const betsBody = document.querySelector('#betsTable tbody');
+    if (betsBody) {
+        let chargement = null;
+
+        // Page suivante : les lignes reçues remplacent le marqueur de suite (elles en contiennent un nouveau s'il en reste)
+        const chargerSuite = () => {
+            const suite = betsBody.querySelector('tr.historique-suite');
+            if (!suite) return Promise.resolve(false);
+            if (chargement) return chargement;
+            const params = new URLSearchParams({ apresDate: suite.dataset.apresDate, apresId: suite.dataset.apresId });
+            chargement = fetch(`/bets/history?${params}`)
+                .then(res => {
+                    if (!res.ok) throw new Error(res.status);
+                    return res.text();
+                })
+                .then(html => {
+                    suite.insertAdjacentHTML('afterend', html);
+                    suite.remove();
+                    observerSuite();
+                    return true;
+                })
+                .catch(() => {
+                    suite.classList.remove('historique-suite');
+                    suite.cells[0].textContent = "Impossible de charger les grilles précédentes.";
+                    return false;
+                })
+                .finally(() => { chargement = null; });
+            return chargement;
+        };
+
+        // Chargement anticipé dès que le marqueur approche du bas de l'écran
+        const observer = new IntersectionObserver(entries => {
+            if (entries.some(e => e.isIntersecting)) chargerSuite();
+        }, { rootMargin: '300px' });
+        const observerSuite = () => {
+            observer.disconnect();
+            const suite = betsBody.querySelector('tr.historique-suite');
+            if (suite) observer.observe(suite);
+        };
+        observerSuite();
+
+        // Export TXT (tout l'historique : les pages restantes sont chargées avant l'export)
+        document.getElementById('btnExportTxt')?.addEventListener('click', async () => {
+            while (await chargerSuite()) { /* page suivante */ }
 
-        // Export TXT
-        document.getElementById('btnExportTxt')?.addEventListener('click', () => {
             let content = "LOTO MASTER AI - EXPORT\n=======================\n";
-            // Logique d'export simplifiée pour la robustesse
-            table.rows({search:'applied'}).data().each(row => {
-                // On parse le HTML de la ligne pour extraire le texte brut
-                const div = document.createElement("div");
-                div.innerHTML = row[1]; // Colonne combinaison
-                const combo = div.textContent.trim().replace(/\s+/g, ' ');
-                div.innerHTML = row[0]; // Colonne Date
-                const date = div.textContent.trim();
+            betsBody.querySelectorAll('tr[data-bet-id]').forEach(tr => {
+                const date = tr.cells[0].textContent.trim().replace(/\s+/g, ' ');
+                const combo = tr.cells[1].textContent.trim().replace(/\s+/g, ' ');
                 content += `${date} | ${combo}\n`;
             });
 
@@ -0,0 +1,96 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.ReglementReportDto;
+import com.analyseloto.loto.entity.LotoTirage;
+import com.analyseloto.loto.entity.LotoTirageRank;
+import com.analyseloto.loto.entity.User;
+import com.analyseloto.loto.entity.UserBet;
+import com.analyseloto.loto.enums.BetType;
+import com.analyseloto.loto.repository.LotoTirageRepository;
+import com.analyseloto.loto.repository.UserBetRepository;
+import com.analyseloto.loto.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BetSettlementServiceTest {
+    private static final LocalDate DATE_TIRAGE = LocalDate.of(2031, 3, 3);
+    private static final int CHANCE = 7;
+
+    @Autowired
+    private BetSettlementService betSettlementService;
+    @Autowired
+    private LotoTirageRepository lotoTirageRepository;
+    @Autowired
+    private UserBetRepository userBetRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void gainsParRangSurLesRapportsDuTirage() {
+        User joueur = new User();
+        joueur.setEmail("reglement@test.local");
+        joueur.setUsername("reglement");
+        joueur.setPassword("x");
+        joueur = userRepository.save(joueur);
+
+        LotoTirage tirage = new LotoTirage();
+        tirage.setDateTirage(DATE_TIRAGE);
+        tirage.setBoule1(4);
+        tirage.setBoule2(11);
+        tirage.setBoule3(23);
+        tirage.setBoule4(35);
+        tirage.setBoule5(49);
+        tirage.setNumeroChance(CHANCE);
+        double[] rapports = {0, 2_000_000, 100_000, 1_000, 500, 50, 20, 10, 5, 2.20};
+        for (int rang = 1; rang <= 9; rang++) tirage.addRank(new LotoTirageRank(rang, 1, rapports[rang]));
+        tirage = lotoTirageRepository.save(tirage);
+
+        UserBet jackpot = grille(joueur, CHANCE, 4, 11, 23, 35, 49);
+        UserBet deuxPlusChance = grille(joueur, CHANCE, 4, 11, 1, 2, 3);
+        UserBet unPlusChance = grille(joueur, CHANCE, 4, 1, 2, 3, 5);
+        UserBet zeroPlusChance = grille(joueur, CHANCE, 1, 2, 3, 5, 6);
+        UserBet unSansChance = grille(joueur, 1, 4, 1, 2, 3, 5);
+        UserBet zeroSansChance = grille(joueur, 1, 1, 2, 3, 5, 6);
+
+        ReglementReportDto rapport = betSettlementService.regler(tirage);
+
+        assertEquals(6, rapport.getGrillesReglees());
+        assertEquals(4, rapport.getGrillesGagnantes());
+        assertEquals(rapports[1], gain(jackpot));
+        assertEquals(rapports[7], gain(deuxPlusChance));
+        assertEquals(rapports[9], gain(unPlusChance));
+        assertEquals(rapports[9], gain(zeroPlusChance));
+        assertEquals(0.0, gain(unSansChance));
+        assertEquals(0.0, gain(zeroSansChance));
+
+        // Grilles déjà réglées : un second passage ne les reprend pas
+        assertEquals(0, betSettlementService.regler(tirage).getGrillesReglees());
+    }
+
+    private UserBet grille(User joueur, int chance, Integer b1, Integer b2, Integer b3, Integer b4, Integer b5) {
+        UserBet bet = new UserBet();
+        bet.setUser(joueur);
+        bet.setDateJeu(DATE_TIRAGE);
+        bet.setType(BetType.GRILLE);
+        bet.setB1(b1);
+        bet.setB2(b2);
+        bet.setB3(b3);
+        bet.setB4(b4);
+        bet.setB5(b5);
+        bet.setChance(chance);
+        bet.setMise(2.20);
+        return userBetRepository.save(bet);
+    }
+
+    private double gain(UserBet bet) {
+        return userBetRepository.findById(bet.getId()).orElseThrow().getGain();
+    }
+}
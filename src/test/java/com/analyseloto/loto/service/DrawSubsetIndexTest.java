@@ -0,0 +1,184 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.dto.MatchGroup;
+import com.analyseloto.loto.dto.SimulationResultDto;
+import com.analyseloto.loto.util.Constantes;
+import com.analyseloto.loto.util.GridMask;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawSubsetIndexTest {
+    private static final int NB_TIRAGES = 1_500;
+    private static final LocalDate PREMIER_TIRAGE = LocalDate.of(2008, 10, 6);
+
+    private static DrawHistoryStore.Snapshot historique;
+    private static LotoService lotoService;
+
+    @BeforeAll
+    static void historiqueSynthetique() {
+        // Un tirage sur trois dans une plage réduite (1 à 12) : nombreux quartets et quintuplets déjà sortis
+        Random random = new Random(42);
+        int[] jours = new int[NB_TIRAGES];
+        byte[][] boules = new byte[5][NB_TIRAGES];
+        byte[] chances = new byte[NB_TIRAGES];
+        int jour = (int) PREMIER_TIRAGE.toEpochDay();
+        for (int i = 0; i < NB_TIRAGES; i++) {
+            jour += 2 + random.nextInt(2);
+            jours[i] = jour;
+            int[] tirage = tirer(random, (i % 3 == 0) ? 12 : 49);
+            for (int r = 0; r < 5; r++) boules[r][i] = (byte) tirage[r];
+            chances[i] = (byte) (1 + random.nextInt(10));
+        }
+        historique = new DrawHistoryStore.Snapshot(jours, boules, chances);
+        // Seule la simulation est utilisée : aucune dépendance nécessaire
+        lotoService = new LotoService(null, null, null, null, null, null, null, null, null, null);
+    }
+
+    @Test
+    void simulationIdentiqueAuParcoursComplet() {
+        DrawSubsetIndex.Index index = DrawSubsetIndex.Index.construire(historique);
+        Random random = new Random(7);
+        for (int essai = 0; essai < 300; essai++) {
+            int taille = 2 + random.nextInt(4);
+            List<Integer> grille = new ArrayList<>();
+            for (int b : tirer(random, (essai % 2 == 0) ? 12 : 49)) grille.add(b);
+            grille = grille.subList(0, taille);
+            LocalDate date = PREMIER_TIRAGE.plusDays(random.nextInt(7_000));
+
+            assertEquals(simulationParcoursComplet(grille, date), lotoService.simulerGrilleDetaillee(grille, date, index),
+                    "Grille " + grille + " au " + date);
+        }
+    }
+
+    @Test
+    void grilleDejaSortieRetrouveeDansLesQuintuplets() {
+        DrawSubsetIndex.Index index = DrawSubsetIndex.Index.construire(historique);
+        int dernier = historique.taille() - 1;
+        List<Integer> grille = GridMask.toList(historique.masque(dernier));
+
+        SimulationResultDto resultat = lotoService.simulerGrilleDetaillee(grille, historique.date(dernier), index);
+
+        assertFalse(resultat.getQuintuplets().isEmpty());
+        assertEquals(grille, resultat.getQuintuplets().get(0).getNumeros());
+        assertTrue(resultat.getQuintuplets().get(0).getDates().get(0).endsWith("(Même jour !)"));
+        assertEquals(simulationParcoursComplet(grille, historique.date(dernier)), resultat);
+    }
+
+    @Test
+    void ajoutIncrementalIdentiqueALaConstruction() {
+        int n = historique.taille();
+        byte[][] colonnes = new byte[5][];
+        for (int r = 0; r < 5; r++) {
+            colonnes[r] = new byte[n - 1];
+            for (int i = 0; i < n - 1; i++) colonnes[r][i] = (byte) historique.boule(i, r);
+        }
+        int[] jours = new int[n - 1];
+        byte[] chances = new byte[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            jours[i] = historique.jour(i);
+            chances[i] = (byte) historique.chance(i);
+        }
+        DrawHistoryStore.Snapshot sansDernier = new DrawHistoryStore.Snapshot(jours, colonnes, chances);
+        DrawSubsetIndex.Index incremental = DrawSubsetIndex.Index.construire(sansDernier).avecTirage(historique, n - 1);
+        DrawSubsetIndex.Index complet = DrawSubsetIndex.Index.construire(historique);
+
+        int[] sousEnsemble = new int[DrawSubsetIndex.K_MAX];
+        for (int i = n - 20; i < n; i++) {
+            int[] tirage = GridMask.toArray(historique.masque(i));
+            for (int sous = 0; sous < 32; sous++) {
+                int k = Integer.bitCount(sous);
+                if (k < DrawSubsetIndex.K_MIN) continue;
+                int j = 0;
+                for (int b = 0; b < 5; b++) {
+                    if ((sous & (1 << b)) != 0) sousEnsemble[j++] = tirage[b];
+                }
+                assertArrayEquals(complet.tirages(sousEnsemble, k), incremental.tirages(sousEnsemble, k));
+            }
+        }
+        assertSame(historique, incremental.historique());
+    }
+
+    @Test
+    void rangColexBijectif() {
+        for (int k = DrawSubsetIndex.K_MIN; k <= 3; k++) {
+            boolean[] vus = new boolean[DrawSubsetIndex.nombreSousEnsembles(k)];
+            int[] numeros = new int[k];
+            for (int i = 0; i < k; i++) numeros[i] = i + 1;
+            do {
+                int rang = DrawSubsetIndex.rangColex(numeros, k);
+                assertFalse(vus[rang], "Rang " + rang + " attribué deux fois");
+                vus[rang] = true;
+            } while (suivant(numeros, 49));
+            for (boolean vu : vus) assertTrue(vu);
+        }
+    }
+
+    /**
+     * Simulation d'origine : parcours de tout l'historique, du plus récent au plus ancien,
+     * et regroupement par intersection exacte avec la grille
+     */
+    private static SimulationResultDto simulationParcoursComplet(List<Integer> boulesJouees, LocalDate dateSimul) {
+        SimulationResultDto result = new SimulationResultDto();
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern(Constantes.FORMAT_DATE_STANDARD);
+        result.setDateSimulee(dateSimul.format(fmt));
+        result.setJourSimule(dateSimul.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.FRANCE).toUpperCase());
+        result.setQuintuplets(new ArrayList<>()); result.setQuartets(new ArrayList<>()); result.setTrios(new ArrayList<>()); result.setPairs(new ArrayList<>());
+
+        long masqueJoue = GridMask.of(boulesJouees);
+        for (int i = historique.taille() - 1; i >= 0; i--) {
+            long commun = historique.masque(i) & masqueJoue;
+            int taille = Long.bitCount(commun);
+            if (taille < 2) continue;
+
+            LocalDate date = historique.date(i);
+            boolean memeJour = date.getDayOfWeek() == dateSimul.getDayOfWeek();
+            String libelle = date.format(fmt) + (memeJour ? " (Même jour !)" : "");
+            List<MatchGroup> cible = switch (taille) {
+                case 5 -> result.getQuintuplets(); case 4 -> result.getQuartets(); case 3 -> result.getTrios(); default -> result.getPairs();
+            };
+            List<Integer> nums = GridMask.toList(commun);
+            Collections.sort(nums);
+            Optional<MatchGroup> existant = cible.stream().filter(m -> m.getNumeros().equals(nums)).findFirst();
+            MatchGroup groupe = existant.orElseGet(() -> {
+                MatchGroup nouveau = new MatchGroup(nums, new ArrayList<>(), false, 0.0);
+                cible.add(nouveau);
+                return nouveau;
+            });
+            groupe.getDates().add(libelle);
+            if (memeJour) groupe.setSameDayOfWeek(true);
+            groupe.setRatio(LotoService.calculerRatio(groupe.getDates().size(), historique.taille(), taille));
+        }
+        return result;
+    }
+
+    private static int[] tirer(Random random, int plage) {
+        TreeSet<Integer> boules = new TreeSet<>();
+        while (boules.size() < 5) boules.add(1 + random.nextInt(plage));
+        return boules.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean suivant(int[] numeros, int max) {
+        int k = numeros.length;
+        for (int i = k - 1; i >= 0; i--) {
+            if (numeros[i] < max - (k - 1 - i)) {
+                numeros[i]++;
+                for (int j = i + 1; j < k; j++) numeros[j] = numeros[j - 1] + 1;
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,101 @@
+package com.analyseloto.loto.service;
+
+import com.analyseloto.loto.entity.EmailOutbox;
+import com.analyseloto.loto.entity.JobLog;
+import com.analyseloto.loto.enums.JobExecutionStatus;
+import com.analyseloto.loto.repository.EmailOutboxRepository;
+import com.analyseloto.loto.repository.JobLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserChunkIteratorTest {
+    private static final String JOB = "TEST_REPRISE_PAR_LOTS";
+    private static final String DOMAINE = "@reprise.test.local";
+    // Deux lots et demi : le deuxième échoue au premier passage
+    private static final long NB_ELEMENTS = UserChunkIterator.TAILLE_LOT * 2L + UserChunkIterator.TAILLE_LOT / 2;
+    private static final long ID_EN_ECHEC = UserChunkIterator.TAILLE_LOT + 1;
+
+    @Autowired
+    private UserChunkIterator userChunkIterator;
+    @Autowired
+    private JobMonitorService jobMonitorService;
+    @Autowired
+    private MailDispatcher mailDispatcher;
+    @Autowired
+    private JobLogRepository jobLogRepository;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Test
+    void repriseApresLeDernierLotValide() {
+        List<Long> lectures = new ArrayList<>();
+
+        // 1er passage : le deuxième lot lève une exception après la mise en file de ses mails
+        JobLog premier = jobMonitorService.startJobReprenable(JOB);
+        assertNull(premier.getDernierIdTraite());
+        RuntimeException erreur = assertThrows(RuntimeException.class,
+                () -> userChunkIterator.parcourir(premier, lecture(lectures), Long::longValue, diffusion(true)));
+        jobMonitorService.endJob(premier, JobExecutionStatus.FAILURE.getCode(), erreur.getMessage());
+
+        assertEquals(UserChunkIterator.TAILLE_LOT, jobLogRepository.findById(premier.getId()).orElseThrow().getDernierIdTraite());
+        // Les mails du lot en échec sont annulés avec lui
+        assertEquals(LongStream.rangeClosed(1, UserChunkIterator.TAILLE_LOT).boxed().toList(), idsMisEnFile());
+
+        // 2e passage : reprise après le dernier lot validé, sans doublon
+        lectures.clear();
+        JobLog reprise = jobMonitorService.startJobReprenable(JOB);
+        assertEquals(UserChunkIterator.TAILLE_LOT, reprise.getDernierIdTraite());
+        int parcourus = userChunkIterator.parcourir(reprise, lecture(lectures), Long::longValue, diffusion(false));
+        jobMonitorService.endJob(reprise, JobExecutionStatus.SUCCESS.getCode(), parcourus + " élément(s).");
+
+        assertEquals(NB_ELEMENTS - UserChunkIterator.TAILLE_LOT, parcourus);
+        assertEquals(List.of((long) UserChunkIterator.TAILLE_LOT, 2L * UserChunkIterator.TAILLE_LOT), lectures);
+        assertEquals(NB_ELEMENTS, jobLogRepository.findById(reprise.getId()).orElseThrow().getDernierIdTraite());
+        assertEquals(LongStream.rangeClosed(1, NB_ELEMENTS).boxed().toList(), idsMisEnFile());
+
+        // Un job terminé n'est plus repris
+        assertNull(jobMonitorService.startJobReprenable(JOB).getDernierIdTraite());
+    }
+
+    /**
+     * Lecture paginée par clé sur les ids 1 à NB_ELEMENTS (les points de départ demandés sont relevés)
+     */
+    private static BiFunction<Long, Limit, List<Long>> lecture(List<Long> lectures) {
+        return (apresId, limite) -> {
+            lectures.add(apresId);
+            return LongStream.rangeClosed(apresId + 1, Math.min(NB_ELEMENTS, apresId + limite.max())).boxed().toList();
+        };
+    }
+
+    private Consumer<List<Long>> diffusion(boolean echec) {
+        return lot -> {
+            mailDispatcher.diffuser(lot, id -> id + DOMAINE, id -> new MailDispatcher.Mail(id + DOMAINE, "Reprise", "<p>" + id + "</p>"),
+                    new MailDispatcher.Rapport(lot.size()), r -> { });
+            if (echec && lot.contains(ID_EN_ECHEC)) {
+                throw new IllegalStateException("Échec du lot après l'id " + (lot.get(0) - 1));
+            }
+        };
+    }
+
+    private List<Long> idsMisEnFile() {
+        return emailOutboxRepository.findAll().stream()
+                .map(EmailOutbox::getDestinataire)
+                .filter(d -> d.endsWith(DOMAINE))
+                .map(d -> Long.parseLong(d.substring(0, d.length() - DOMAINE.length())))
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,46 @@
+package com.analyseloto.loto.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GridMaskTest {
+
+    @Test
+    void masqueDeCinqBoulesObjets() {
+        long masque = GridMask.of(Integer.valueOf(3), Integer.valueOf(17), Integer.valueOf(25), Integer.valueOf(41), Integer.valueOf(49));
+        assertEquals(5, GridMask.taille(masque));
+        assertArrayEquals(new int[]{3, 17, 25, 41, 49}, GridMask.toArray(masque));
+    }
+
+    @Test
+    void grilleIncompleteDonneUnMasqueVide() {
+        assertEquals(0L, GridMask.of(1, 2, 3, 4, (Integer) null));
+    }
+
+    @Test
+    void masqueDUneListeIgnoreNullsEtHorsBornes() {
+        long masque = GridMask.of(Arrays.asList(0, 1, null, 49, 50, 12));
+        assertEquals(List.of(1, 12, 49), GridMask.toList(masque));
+    }
+
+    @Test
+    void allerRetourToArray() {
+        int[] boules = {2, 9, 30, 31, 48};
+        assertArrayEquals(boules, GridMask.toArray(GridMask.of(boules)));
+        assertEquals(GridMask.of(boules), GridMask.of(List.of(48, 31, 30, 9, 2)));
+    }
+
+    @Test
+    void numerosCommunsEtAppartenance() {
+        long a = GridMask.of(1, 2, 3, 4, 5);
+        long b = GridMask.of(4, 5, 6, 7, 8);
+        assertEquals(2, GridMask.communs(a, b));
+        assertTrue(GridMask.contient(a, 1));
+        assertFalse(GridMask.contient(a, 6));
+        assertFalse(GridMask.contient(a, 0));
+    }
+}
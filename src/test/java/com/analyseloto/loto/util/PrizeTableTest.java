@@ -0,0 +1,92 @@
+package com.analyseloto.loto.util;
+
+import com.analyseloto.loto.entity.LotoTirage;
+import com.analyseloto.loto.entity.LotoTirageRank;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrizeTableTest {
+    private static final int CHANCE = 7;
+
+    private static LotoTirage tirage(boolean rapportsPublies) {
+        LotoTirage tirage = new LotoTirage();
+        tirage.setBoule1(4);
+        tirage.setBoule2(11);
+        tirage.setBoule3(23);
+        tirage.setBoule4(35);
+        tirage.setBoule5(49);
+        tirage.setNumeroChance(CHANCE);
+        if (rapportsPublies) {
+            for (int rang = 1; rang <= 9; rang++) {
+                tirage.addRank(new LotoTirageRank(rang, rang * 10, 1000.0 / rang));
+            }
+        }
+        return tirage;
+    }
+
+    private static int rang(PrizeTable table, Integer chance, int... boules) {
+        return table.rang(GridMask.of(boules), chance);
+    }
+
+    @Test
+    void rangsAvecEtSansNumeroChance() {
+        PrizeTable table = PrizeTable.of(tirage(true));
+        assertEquals(1, rang(table, CHANCE, 4, 11, 23, 35, 49));
+        assertEquals(2, rang(table, 1, 4, 11, 23, 35, 49));
+        assertEquals(3, rang(table, CHANCE, 4, 11, 23, 35, 1));
+        assertEquals(4, rang(table, 1, 4, 11, 23, 35, 1));
+        assertEquals(5, rang(table, CHANCE, 4, 11, 23, 1, 2));
+        assertEquals(6, rang(table, 1, 4, 11, 23, 1, 2));
+        assertEquals(7, rang(table, CHANCE, 4, 11, 1, 2, 3));
+        assertEquals(8, rang(table, 1, 4, 11, 1, 2, 3));
+    }
+
+    @Test
+    void unBonNumeroPlusChanceEstRembourse() {
+        PrizeTable table = PrizeTable.of(tirage(true));
+        assertEquals(9, rang(table, CHANCE, 4, 1, 2, 3, 5));
+        assertEquals(0, rang(table, 1, 4, 1, 2, 3, 5));
+    }
+
+    @Test
+    void aucunBonNumeroPlusChanceEstRembourse() {
+        PrizeTable table = PrizeTable.of(tirage(true));
+        assertEquals(9, rang(table, CHANCE, 1, 2, 3, 5, 6));
+        assertEquals(0, rang(table, 1, 1, 2, 3, 5, 6));
+        assertEquals(0, rang(table, null, 1, 2, 3, 5, 6));
+    }
+
+    @Test
+    void codeLotoSansBoulesNiChanceEstPerdant() {
+        PrizeTable table = PrizeTable.of(tirage(true));
+        assertEquals(0, table.rang(0L, null));
+        assertEquals(0.0, table.gain(0L, null));
+    }
+
+    @Test
+    void gainsLusDansLesRapportsPublies() {
+        PrizeTable table = PrizeTable.of(tirage(true));
+        for (int rang = 1; rang <= 9; rang++) {
+            assertEquals(1000.0 / rang, table.gainRang(rang));
+        }
+        assertEquals(0.0, table.gainRang(0));
+    }
+
+    @Test
+    void sansRapportsSeulLeRang9Rembourse() {
+        PrizeTable table = PrizeTable.of(tirage(false));
+        assertEquals(2.20, table.gain(GridMask.of(4, 1, 2, 3, 5), CHANCE));
+        assertEquals(0.0, table.gain(GridMask.of(4, 11, 23, 35, 49), CHANCE));
+    }
+
+    @Test
+    void rang9AbsentDesRapportsResteRembourse() {
+        LotoTirage tirage = tirage(false);
+        tirage.addRank(new LotoTirageRank(1, 0, 5_000_000.0));
+        PrizeTable table = PrizeTable.of(tirage);
+        assertEquals(5_000_000.0, table.gainRang(1));
+        assertEquals(0.0, table.gainRang(2));
+        assertEquals(2.20, table.gainRang(9));
+    }
+}